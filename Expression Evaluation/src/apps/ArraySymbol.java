@@ -58,4 +58,11 @@ public class ArraySymbol {
 		ArraySymbol as = (ArraySymbol)o;
 		return name.equals(as.name);
 	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	public int hashCode() {
+		return name.hashCode();
+	}
 }
@@ -5,14 +5,12 @@ import java.lang.reflect.Array;
 import java.util.*;
 import java.util.regex.*;
 
-import structures.Stack;
-
 public class Expression {
 
 	/**
 	 * Expression to be evaluated
 	 */
-	String expr;                
+	final String expr;
     
 	/**
 	 * Scalar symbols in the expression 
@@ -23,6 +21,17 @@ public class Expression {
 	 * Array symbols in the expression
 	 */
 	ArrayList<ArraySymbol> arrays;
+
+	/**
+	 * Slots and values of the symbols, scalars[i] and arrays[i] having slot i
+	 */
+	SymbolTable symbols;
+
+	/**
+	 * Compiled expression, built by the first evaluate over the current symbols; volatile so
+	 * that a thread that finds it set also sees the whole compiled program
+	 */
+	volatile CompiledExpression compiled;
     
     /**
      * String containing all delimiters (characters other than variables and constants), 
@@ -50,6 +59,8 @@ public class Expression {
     public void buildSymbols() {
         scalars = new ArrayList <ScalarSymbol>();
         arrays = new ArrayList <ArraySymbol>();
+        symbols = new SymbolTable();
+        compiled = null;
 
         String input = expr;
         System.out.println("Expression: " + expr);
@@ -64,93 +75,70 @@ public class Expression {
 
         while (m.find()) {
             if (m.group(2) == null) {
-                ScalarSymbol scalar = new ScalarSymbol(m.group(1));
-                if (!scalars.contains(scalar)) {
-                    scalars.add(scalar);
+                if (symbols.defineScalar(m.group(1)) == scalars.size()) {
+                    scalars.add(new ScalarSymbol(m.group(1)));
                 }
             }
             else {
-                ArraySymbol array = new ArraySymbol(m.group(1));
-                if (!arrays.contains(array)) {
-                    arrays.add(array);
+                if (symbols.defineArray(m.group(1)) == arrays.size()) {
+                    arrays.add(new ArraySymbol(m.group(1)));
                 }
             }
-            
-            System.out.println("Found value:" + m.group(1));
-            System.out.println("Scalar Array: ");
-            printScalars();
-            System.out.println("Array Array: ");
-            printArrays();
         }
         
     }
 
-    private boolean isOperation(String token) {
-        return token.equals("+") || token.equals("-") || token.equals("*") || token.equals("/");
-    }
     /**
-     * Loads values for symbols in the expression
+     * Loads values for symbols in the expression. Values are loaded into the symbol table,
+     * looking up each line in constant time, then copied to the symbols in the lists.
+     * Values assigned to ScalarSymbol.value or ArraySymbol.values afterwards are copied
+     * back into the symbol table by compile and evaluate.
      * 
      * @param sc Scanner for values input
      * @throws IOException If there is a problem with the input 
      */
     public void loadSymbolValues(Scanner sc) 
     throws IOException {
-        while (sc.hasNextLine()) {
-            StringTokenizer st = new StringTokenizer(sc.nextLine().trim());
-            int numTokens = st.countTokens();
-            String sym = st.nextToken();
-            ScalarSymbol ssymbol = new ScalarSymbol(sym);
-            ArraySymbol asymbol = new ArraySymbol(sym);
-            int ssi = scalars.indexOf(ssymbol);
-            int asi = arrays.indexOf(asymbol);
-            if (ssi == -1 && asi == -1) {
-            	continue;
-            }
-            int num = Integer.parseInt(st.nextToken());
-            if (numTokens == 2) { // scalar symbol
-                scalars.get(ssi).value = num;
-            } else { // array symbol
-            	asymbol = arrays.get(asi);
-            	asymbol.values = new int[num];
-                // following are (index,val) pairs
-                while (st.hasMoreTokens()) {
-                    String tok = st.nextToken();
-                    StringTokenizer stt = new StringTokenizer(tok," (,)");
-                    int index = Integer.parseInt(stt.nextToken());
-                    int val = Integer.parseInt(stt.nextToken());
-                    asymbol.values[index] = val;              
-                }
-            }
+        symbols.load(sc);
+        for (int i = 0; i < scalars.size(); i++) {
+            scalars.get(i).value = symbols.scalar(i);
+        }
+        for (int i = 0; i < arrays.size(); i++) {
+            arrays.get(i).values = symbols.array(i);
         }
     }
     
     
     /**
-     * Evaluates the expression, using RECURSION to evaluate subexpressions and to evaluate array 
-     * subscript expressions.
+     * Compiles the expression over its symbols, on the first call after buildSymbols; later
+     * calls return the same compiled expression. The current values of the symbols in the
+     * scalars and arrays lists are copied into the symbol table on every call. The compiled
+     * expression is immutable: to evaluate it in several threads at once, give each a frame
+     * of its own, made with compile().symbols().newFrame() after loading the symbol values.
      * 
-     * @return Result of evaluation
+     * @return Compiled expression
+     * @throws IllegalArgumentException If the expression is not valid
      */
-
-
-    private float eval(String string) throws NoSuchElementException {
-        try {
-            return Float.parseFloat(string);
-        } catch (NumberFormatException exception) {
-            ScalarSymbol scaSymbol = findScalar(string);
-            if (scaSymbol == null) {
-                throw new NoSuchElementException();
-            }
-            return scaSymbol.value;
+    public CompiledExpression compile() throws IllegalArgumentException {
+        storeSymbolValues();
+        CompiledExpression result = compiled;
+        if (result == null) {
+            result = CompiledExpression.compile(expr, symbols, false);
+            compiled = result;
         }
+        return result;
     }
 
+    /**
+     * Evaluates the expression. The expression is compiled on the first call, and the
+     * compiled program is reused, with the current values of the symbols in the scalars
+     * and arrays lists, on later calls. See loadSymbolValues.
+     * 
+     * @return Result of evaluation, -1 if the expression is not valid or cannot be evaluated
+     */
     public float evaluate() {
         try {
-            expr = expr.replaceAll("\\s+","");
-            System.out.println("Expression: " + expr);
-            return evaluate(expr);
+            return compile().evaluate();
         } catch (IllegalArgumentException e) {
             e.printStackTrace();
         } catch (Exception other) {
@@ -158,168 +146,31 @@ public class Expression {
         }
         return -1;
     }
-    public float evaluate(String expr) throws IllegalArgumentException{
-        System.out.println();
-        System.out.println("Evaluating: " + expr);
-
-        StringTokenizer tokenizer = new StringTokenizer(expr, delims, true);
-        int tokenizerPosition = 0;
-        float lhs = 0;
-        while (tokenizer.hasMoreTokens()) {
-            String token = tokenizer.nextToken();
-            tokenizerPosition += token.length();
-            if (isOpenParantheses(token)) {
-                int endOfSubExpression = runTokenizerToEndOfCurvySubExpression(tokenizer, tokenizerPosition);
-                String subExpression = expr.substring(tokenizerPosition, endOfSubExpression);
-                tokenizerPosition = endOfSubExpression;
-                lhs = evaluate(subExpression);
-            } else if (isHigherOrderOperator(token)) {
-                String nextToken = tokenizer.nextToken();
-                tokenizerPosition += nextToken.length();
-                if (isOpenParantheses(nextToken)) {
-                    int endOfSubExpression = runTokenizerToEndOfCurvySubExpression(tokenizer, tokenizerPosition);
-                    String subExpression = expr.substring(tokenizerPosition, endOfSubExpression);
-                    tokenizerPosition = endOfSubExpression;
-                    float subExpressionValue = evaluate(subExpression);
-                    lhs = performOperation(lhs, subExpressionValue, token);
-                } else {
-                    try {
-                        float next = eval(nextToken);
-                        lhs = performOperation(lhs, next, token);
-                    } catch (NoSuchElementException e) {
-                        ArraySymbol arraySymbol = findArray(nextToken);
-                        String openSquareBracket = tokenizer.nextToken();
-                        tokenizerPosition += token.length();
-                        assert arraySymbol != null;
-                        if (isOpenSquareParantheses(openSquareBracket)) {
-                            int endOfSquareSubExpression = runTokenizerToEndOfSquareSubExpression(tokenizer, tokenizerPosition);
-                            String subExpression = expr.substring(tokenizerPosition, endOfSquareSubExpression);
-                            tokenizerPosition = endOfSquareSubExpression;
-                            int arrayIndex = (int) evaluate(subExpression);
-                            float arrayValue = arrayValue(arraySymbol, arrayIndex);
-                            System.out.println("Evaluated array " + arraySymbol.name + "[" + arrayIndex + "] to " + arrayValue);
-                            lhs = performOperation(lhs, arrayValue, token);
-                        }
-                    }
-                }
-            } else if (isOperation(token)) {
-                String rhsExpression = expr.substring(tokenizerPosition, expr.length());
-                float rhs = evaluate(rhsExpression);
-                return performOperation(lhs, rhs, token);
-            } else {
-                try {
-                    lhs = eval(token);
-                    System.out.println("Evaluated lhs '" + token + "' to " + lhs);
-                } catch (NoSuchElementException e) {
-                    ArraySymbol arraySymbol = findArray(token);
-                    String openSquareBracket = tokenizer.nextToken();
-                    tokenizerPosition += token.length();
-                    assert arraySymbol != null;
-                    if (isOpenSquareParantheses(openSquareBracket)) {
-                        int endOfSquareSubExpression = runTokenizerToEndOfSquareSubExpression(tokenizer, tokenizerPosition);
-                        String subExpression = expr.substring(tokenizerPosition, endOfSquareSubExpression);
-                        tokenizerPosition = endOfSquareSubExpression;
-                        int arrayIndex = (int) evaluate(subExpression);
-                        lhs = arrayValue(arraySymbol, arrayIndex);
-                        System.out.println("Evaluated array " + arraySymbol.name + "[" + arrayIndex + "] to " + lhs);
-                    }
-                }
-            }
-        }
-        return lhs;
-    }
-    private float performOperation(float first, float second, String operator)  throws IllegalArgumentException {
-        float result;
-        if (operator.equals("+")) {
-            result = first + second;
-            System.out.println("Adding " + first + " and " + second + " = " + result);
-        } else if (operator.equals("-")) {
-            result = first  - second;
-            System.out.println("Subtrating " + first + " and " + second + " = " + result);
-        } else if (operator.equals("*")) {
-            result = first * second;
-            System.out.println("Multiplying " + first + " and " + second + " = " + result);
-        } else if (operator.equals("/")) {
-            if (second == 0) {
-                throw new IllegalArgumentException("Cannot divide by zero");
-            }
-            result = first / second;
-            System.out.println("Dividing " + first + " and " + second + " = " + result);
-        } else {
-            throw new IllegalArgumentException(operator + " is not a valid operator");
-        }
-        return result;
-    }
-
-
-    private int runTokenizerToEndOfCurvySubExpression(StringTokenizer tokenizer, int tokenizerPosition) {
-        int count = 1;
-        while (tokenizer.hasMoreTokens()) {
-            String next = tokenizer.nextToken();
-            tokenizerPosition += next.length();
-            if (next.equals("(")) {
-                count++;
-            }
-            if (next.equals(")")) {
-                count--;
-                if (count == 0) {
-                    break;
-                }
-            }
-        }
-        return tokenizerPosition;
-    }
-
-    private int runTokenizerToEndOfSquareSubExpression(StringTokenizer tokenizer, int tokenizerPosition) {
-        int count = 1;
-        while (tokenizer.hasMoreTokens()) {
-            String next = tokenizer.nextToken();
-            tokenizerPosition += next.length();
-            if (next.equals("[")) {
-                count++;
-            }
-            if (next.equals("]")) {
-                count--;
-                if (count == 0) {
-                    break;
-                }
-            }
-        }
-        return tokenizerPosition;
-    }
 
-    private boolean isOpenSquareParantheses(String token) { return token.equals("["); }
-    private boolean isOpenParantheses(String token) { return token.equals("("); }
-    private boolean isHigherOrderOperator(String token) {
-        return token.equals("*") || token.equals("/");
+    /**
+     * Evaluates an expression over the symbols of this expression.
+     * 
+     * @param expr Expression, whose symbols are all in the scalars and arrays lists
+     * @return Result of evaluation
+     * @throws IllegalArgumentException If the expression is not valid or cannot be evaluated
+     */
+    public float evaluate(String expr) throws IllegalArgumentException {
+        storeSymbolValues();
+        return CompiledExpression.compile(expr, symbols, false).evaluate();
     }
 
-    private ScalarSymbol findScalar(String name) {
-        for (ScalarSymbol symbol : scalars) {
-            if (symbol.name.equals(name)) {
-                return symbol;
-            }
+    /**
+     * Copies the values of the symbols in the scalars and arrays lists into the symbol table.
+     */
+    private void storeSymbolValues() {
+        for (int i = 0; i < scalars.size(); i++) {
+            symbols.setScalar(i, scalars.get(i).value);
         }
-        return null;
-    }
-
-    private ArraySymbol findArray(String name) {
-        for (ArraySymbol symbol : arrays) {
-            if (symbol.name.equals(name)) {
-                return symbol;
-            }
+        for (int i = 0; i < arrays.size(); i++) {
+            symbols.setArray(i, arrays.get(i).values);
         }
-        return null;
     }
 
-    private float arrayValue(ArraySymbol arraySymbol, int index) {
-        if (index < arraySymbol.values.length) {
-            return arraySymbol.values[index];
-        } else {
-            System.out.println("Array index out of bounds");
-            return 0;
-        }
-    }
     /**
      * Utility method, prints the symbols in the scalars list
      */
@@ -0,0 +1,185 @@
+package apps;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class evaluates compiled expressions in parallel on a fork-join pool. A batch of
+ * jobs, each an expression and a frame of values for it, is split in halves until a task
+ * has at most JOBS_PER_TASK jobs; a table of rows is split the same way into ranges of
+ * whole blocks of CompiledExpression.BLOCK_ROWS rows. Compiled expressions are immutable
+ * and every job reads only its own frame, or its own rows, and writes only its own
+ * results, so tasks share nothing mutable and take no locks.
+ *
+ * @author ru-nb-cs112
+ *
+ */
+public class ParallelEvaluator {
+
+	/**
+	 * Largest number of jobs evaluated by a task without splitting.
+	 */
+	public static final int JOBS_PER_TASK = 256;
+
+	/**
+	 * Largest number of blocks of rows evaluated by a task without splitting.
+	 */
+	public static final int BLOCKS_PER_TASK = 4;
+
+	/**
+	 * Evaluates a batch of jobs on the common fork-join pool.
+	 *
+	 * @param expressions Expression of each job; the same expression may be in many jobs
+	 * @param frames Frame of each job, of the symbol table of its expression; a frame must
+	 * not be in two jobs, nor changed, while the batch runs
+	 * @return Result of each job
+	 * @throws IllegalArgumentException If the arrays have different lengths, or a job
+	 * cannot be evaluated
+	 */
+	public static float[] evaluate(CompiledExpression[] expressions, Frame[] frames)
+	throws IllegalArgumentException {
+		return evaluate(ForkJoinPool.commonPool(), expressions, frames);
+	}
+
+	/**
+	 * Evaluates a batch of jobs on a given fork-join pool.
+	 *
+	 * @param pool Pool
+	 * @param expressions Expression of each job; the same expression may be in many jobs
+	 * @param frames Frame of each job, of the symbol table of its expression; a frame must
+	 * not be in two jobs, nor changed, while the batch runs
+	 * @return Result of each job
+	 * @throws IllegalArgumentException If the arrays have different lengths, or a job
+	 * cannot be evaluated
+	 */
+	public static float[] evaluate(ForkJoinPool pool, CompiledExpression[] expressions, Frame[] frames)
+	throws IllegalArgumentException {
+		if (expressions.length != frames.length) {
+			throw new IllegalArgumentException(expressions.length + " expressions for " + frames.length + " frames");
+		}
+		for (int i = 0; i < expressions.length; i++) {
+			expressions[i].checkFrame(frames[i]);
+		}
+		float[] results = new float[expressions.length];
+		pool.invoke(new JobTask(expressions, frames, results, 0, results.length));
+		return results;
+	}
+
+	/**
+	 * Evaluates an expression for every row of a table of columns on the common fork-join
+	 * pool.
+	 *
+	 * @param expression Expression
+	 * @param columns Columns of values of the variables, by slot
+	 * @param results Array that receives the result of each row
+	 * @throws IllegalArgumentException If there are more columns than variables, a column
+	 * is too short, or a row cannot be evaluated
+	 */
+	public static void evaluate(CompiledExpression expression, int[][] columns, float[] results)
+	throws IllegalArgumentException {
+		evaluate(ForkJoinPool.commonPool(), expression, columns, results);
+	}
+
+	/**
+	 * Evaluates an expression for every row of a table of columns, as
+	 * CompiledExpression.evaluate(int[][], float[]) does, with ranges of rows evaluated in
+	 * parallel on a given fork-join pool. Variables with no column take their values in
+	 * the symbol table, which must not change while the rows are evaluated.
+	 *
+	 * @param pool Pool
+	 * @param expression Expression
+	 * @param columns Columns of values of the variables, by slot
+	 * @param results Array that receives the result of each row
+	 * @throws IllegalArgumentException If there are more columns than variables, a column
+	 * is too short, or a row cannot be evaluated
+	 */
+	public static void evaluate(ForkJoinPool pool, CompiledExpression expression, int[][] columns, float[] results)
+	throws IllegalArgumentException {
+		expression.checkColumns(columns, results.length);
+		pool.invoke(new RowTask(expression, columns, results, 0, results.length));
+	}
+
+	/**
+	 * A fork-join task that evaluates a range of jobs.
+	 */
+	private static class JobTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CompiledExpression[] expressions;
+		private final Frame[] frames;
+		private final float[] results;
+
+		/**
+		 * Range of jobs evaluated by this task, from inclusive, to exclusive.
+		 */
+		private final int from, to;
+
+		JobTask(CompiledExpression[] expressions, Frame[] frames, float[] results, int from, int to) {
+			this.expressions = expressions;
+			this.frames = frames;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		protected void compute() {
+			if (to - from <= JOBS_PER_TASK) {
+				for (int i = from; i < to; i++) {
+					results[i] = expressions[i].evaluate(frames[i]);
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			JobTask left = new JobTask(expressions, frames, results, from, middle);
+			left.fork();
+			new JobTask(expressions, frames, results, middle, to).compute();
+			left.join();
+		}
+	}
+
+	/**
+	 * A fork-join task that evaluates a range of rows of a table.
+	 */
+	private static class RowTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CompiledExpression expression;
+		private final int[][] columns;
+		private final float[] results;
+
+		/**
+		 * Range of rows evaluated by this task, from inclusive, to exclusive.
+		 */
+		private final int from, to;
+
+		RowTask(CompiledExpression expression, int[][] columns, float[] results, int from, int to) {
+			this.expression = expression;
+			this.columns = columns;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		protected void compute() {
+			int blocks = (to - from + CompiledExpression.BLOCK_ROWS - 1) / CompiledExpression.BLOCK_ROWS;
+			if (blocks <= BLOCKS_PER_TASK) {
+				SymbolTable symbols = expression.symbols();
+				expression.evaluateRows(symbols.scalars, symbols.arrays, columns, results, from, to);
+				return;
+			}
+			int middle = from + blocks / 2 * CompiledExpression.BLOCK_ROWS;
+			RowTask left = new RowTask(expression, columns, results, from, middle);
+			left.fork();
+			new RowTask(expression, columns, results, middle, to).compute();
+			left.join();
+		}
+	}
+}
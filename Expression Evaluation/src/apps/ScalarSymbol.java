@@ -46,5 +46,12 @@ public class ScalarSymbol {
 		ScalarSymbol ss = (ScalarSymbol)o;
 		return name.equals(ss.name);
 	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	public int hashCode() {
+		return name.hashCode();
+	}
 }
 
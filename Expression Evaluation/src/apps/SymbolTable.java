@@ -0,0 +1,256 @@
+package apps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Scanner;
+import java.util.StringTokenizer;
+
+/**
+ * This class holds the variables and arrays of compiled expressions. Each name is given a
+ * dense integer slot when it is defined, variables and arrays being numbered separately
+ * from 0, and is found again through a hash map. Values are kept in primitive arrays
+ * indexed by slot, an int for each variable and an int[] for each array, so a compiled
+ * expression reads them by slot with no lookup by name.
+ *
+ * @author ru-nb-cs112
+ *
+ */
+public class SymbolTable {
+
+	/**
+	 * Slots of variables and arrays, by name.
+	 */
+	private final HashMap<String, Integer> scalarSlots = new HashMap<String, Integer>();
+	private final HashMap<String, Integer> arraySlots = new HashMap<String, Integer>();
+
+	/**
+	 * Names of variables and arrays, by slot.
+	 */
+	private final ArrayList<String> scalarNames = new ArrayList<String>();
+	private final ArrayList<String> arrayNames = new ArrayList<String>();
+
+	/**
+	 * Values of variables, and of arrays (null until loaded), by slot. The arrays may be
+	 * longer than the number of slots.
+	 */
+	int[] scalars = new int[8];
+	int[][] arrays = new int[8][];
+
+	/**
+	 * Returns a table with the variables and arrays of the given lists, in list order, and
+	 * their current values. Array values are shared, not copied.
+	 *
+	 * @param scalars The scalars array list
+	 * @param arrays The arrays array list
+	 * @return Symbol table
+	 */
+	public static SymbolTable of(ArrayList<ScalarSymbol> scalars, ArrayList<ArraySymbol> arrays) {
+		SymbolTable symbols = new SymbolTable();
+		for (ScalarSymbol scalar : scalars) {
+			symbols.setScalar(symbols.defineScalar(scalar.name), scalar.value);
+		}
+		for (ArraySymbol array : arrays) {
+			symbols.setArray(symbols.defineArray(array.name), array.values);
+		}
+		return symbols;
+	}
+
+	/**
+	 * Returns the slot of a variable, defining it with zero value if it is new.
+	 *
+	 * @param name Variable name
+	 * @return Slot
+	 */
+	public int defineScalar(String name) {
+		Integer slot = scalarSlots.get(name);
+		if (slot != null) {
+			return slot;
+		}
+		slot = scalarNames.size();
+		if (slot == scalars.length) {
+			scalars = Arrays.copyOf(scalars, 2 * slot);
+		}
+		scalarSlots.put(name, slot);
+		scalarNames.add(name);
+		return slot;
+	}
+
+	/**
+	 * Returns the slot of an array, defining it with null values if it is new.
+	 *
+	 * @param name Array name
+	 * @return Slot
+	 */
+	public int defineArray(String name) {
+		Integer slot = arraySlots.get(name);
+		if (slot != null) {
+			return slot;
+		}
+		slot = arrayNames.size();
+		if (slot == arrays.length) {
+			arrays = Arrays.copyOf(arrays, 2 * slot);
+		}
+		arraySlots.put(name, slot);
+		arrayNames.add(name);
+		return slot;
+	}
+
+	/**
+	 * Returns the slot of a variable.
+	 *
+	 * @param name Variable name
+	 * @return Slot, -1 if there is no such variable
+	 */
+	public int scalarSlot(String name) {
+		Integer slot = scalarSlots.get(name);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Returns the slot of an array.
+	 *
+	 * @param name Array name
+	 * @return Slot, -1 if there is no such array
+	 */
+	public int arraySlot(String name) {
+		Integer slot = arraySlots.get(name);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Returns the number of variables.
+	 *
+	 * @return Number of variables
+	 */
+	public int scalarCount() {
+		return scalarNames.size();
+	}
+
+	/**
+	 * Returns the number of arrays.
+	 *
+	 * @return Number of arrays
+	 */
+	public int arrayCount() {
+		return arrayNames.size();
+	}
+
+	/**
+	 * Returns the name of a variable.
+	 *
+	 * @param slot Slot
+	 * @return Name
+	 */
+	public String scalarName(int slot) {
+		return scalarNames.get(slot);
+	}
+
+	/**
+	 * Returns the name of an array.
+	 *
+	 * @param slot Slot
+	 * @return Name
+	 */
+	public String arrayName(int slot) {
+		return arrayNames.get(slot);
+	}
+
+	/**
+	 * Returns the value of a variable.
+	 *
+	 * @param slot Slot
+	 * @return Value
+	 */
+	public int scalar(int slot) {
+		checkSlot(slot, scalarNames.size());
+		return scalars[slot];
+	}
+
+	/**
+	 * Sets the value of a variable.
+	 *
+	 * @param slot Slot
+	 * @param value Value
+	 */
+	public void setScalar(int slot, int value) {
+		checkSlot(slot, scalarNames.size());
+		scalars[slot] = value;
+	}
+
+	/**
+	 * Returns the values of an array.
+	 *
+	 * @param slot Slot
+	 * @return Values, null if not loaded
+	 */
+	public int[] array(int slot) {
+		checkSlot(slot, arrayNames.size());
+		return arrays[slot];
+	}
+
+	/**
+	 * Sets the values of an array.
+	 *
+	 * @param slot Slot
+	 * @param values Values, which are shared, not copied
+	 */
+	public void setArray(int slot, int[] values) {
+		checkSlot(slot, arrayNames.size());
+		arrays[slot] = values;
+	}
+
+	/**
+	 * Returns a new frame with the current values of this table, to evaluate expressions
+	 * compiled over this table with other values.
+	 *
+	 * @return Frame
+	 */
+	public Frame newFrame() {
+		return new Frame(this);
+	}
+
+	private static void checkSlot(int slot, int count) {
+		if (slot < 0 || slot >= count) {
+			throw new IndexOutOfBoundsException("Slot " + slot + " out of " + count);
+		}
+	}
+
+	/**
+	 * Loads values of variables and arrays, in the format of Expression.loadSymbolValues:
+	 * a line "name value" for a variable, "name length (index,value) ..." for an array.
+	 * Lines for names that are not in this table are skipped. Each line is looked up in
+	 * constant time.
+	 *
+	 * @param sc Scanner for values input
+	 * @throws NumberFormatException If a value is not an integer
+	 */
+	public void load(Scanner sc) {
+		while (sc.hasNextLine()) {
+			StringTokenizer st = new StringTokenizer(sc.nextLine().trim());
+			int numTokens = st.countTokens();
+			if (numTokens < 2) {
+				continue;
+			}
+			String name = st.nextToken();
+			int num = Integer.parseInt(st.nextToken());
+			int slot = scalarSlot(name);
+			if (numTokens == 2 && slot != -1) {
+				scalars[slot] = num;
+				continue;
+			}
+			slot = arraySlot(name);
+			if (slot == -1) {
+				continue;
+			}
+			int[] values = new int[num];
+			// following are (index,val) pairs
+			while (st.hasMoreTokens()) {
+				StringTokenizer stt = new StringTokenizer(st.nextToken(), " (,)");
+				int index = Integer.parseInt(stt.nextToken());
+				values[index] = Integer.parseInt(stt.nextToken());
+			}
+			arrays[slot] = values;
+		}
+	}
+}
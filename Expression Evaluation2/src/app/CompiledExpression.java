@@ -0,0 +1,479 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import structures.Stack;
+
+/**
+ * This class holds an expression compiled once into a postfix program, so that it can be
+ * evaluated any number of times without touching the expression text again. Compiling
+ * tokenizes the expression in one pass and parses it with the usual precedence: unary
+ * minus first, then * and /, then + and -, all binary operators left-associative, with
+ * parentheses and array subscripts nested to any depth. The program refers to variables
+ * and arrays by their slots in a SymbolTable, so evaluate reads their current values in
+ * the table by index, or in a Frame of the table. A compiled expression is immutable, and
+ * may be shared by threads that evaluate it with frames of their own.
+ *
+ * @author ru-nb-cs112
+ *
+ */
+public class CompiledExpression {
+
+	/**
+	 * Instruction codes. PUSH pushes constants[arg], LOAD pushes the value of variable slot
+	 * arg, INDEX replaces the subscript on top of the stack with the item of array slot arg it
+	 * selects; the other instructions replace the operands on top of the stack by their result.
+	 */
+	static final int PUSH = 0, LOAD = 1, INDEX = 2, ADD = 3, SUBTRACT = 4, MULTIPLY = 5, DIVIDE = 6, NEGATE = 7;
+
+	/**
+	 * Marks of open parentheses and subscripts on the operator stack. The mark of a
+	 * subscript of array slot i is SUBSCRIPT - i.
+	 */
+	private static final int OPEN = -1, SUBSCRIPT = -2;
+
+	/**
+	 * Number of rows evaluated together by the column evaluator.
+	 */
+	public static final int BLOCK_ROWS = 1024;
+
+	/**
+	 * Instructions, and their arguments, in postfix order.
+	 */
+	private final int[] codes, args;
+
+	/**
+	 * Constants of the expression.
+	 */
+	private final float[] constants;
+
+	/**
+	 * Symbols referred to by LOAD and INDEX instructions.
+	 */
+	private final SymbolTable symbols;
+
+	/**
+	 * Numbers of variables and arrays in the symbol table when this expression was
+	 * compiled; every slot used by the instructions is below them.
+	 */
+	private final int scalarCount, arrayCount;
+
+	/**
+	 * Largest number of values on the stack during evaluation.
+	 */
+	private final int maxDepth;
+
+	private CompiledExpression(Parser parser) {
+		codes = Arrays.copyOf(parser.codes, parser.size);
+		args = Arrays.copyOf(parser.args, parser.size);
+		constants = Arrays.copyOf(parser.constants, parser.constantCount);
+		symbols = parser.symbols;
+		scalarCount = symbols.scalarCount();
+		arrayCount = symbols.arrayCount();
+		maxDepth = parser.maxDepth;
+	}
+
+	/**
+	 * Compiles an expression over a symbol table, defining its variables and arrays in the
+	 * table if they are not there. Their values are then set or loaded in the table.
+	 *
+	 * @param expr The expression
+	 * @param symbols Symbol table
+	 * @return Compiled expression
+	 * @throws IllegalArgumentException If the expression is not well formed
+	 */
+	public static CompiledExpression compile(String expr, SymbolTable symbols)
+	throws IllegalArgumentException {
+		return compile(expr, symbols, true);
+	}
+
+	/**
+	 * Compiles an expression over the symbols of the given lists. Every name in the
+	 * expression must be in vars or, if it is followed by a subscript, in arrays. The values
+	 * of the variables are copied into the symbol table of the result, so later changes to
+	 * them are not seen by evaluate; they are set with symbols().setScalar instead.
+	 *
+	 * @param expr The expression
+	 * @param vars The variables array list, as populated by Expression.makeVariableLists
+	 * @param arrays The arrays array list, as populated by Expression.makeVariableLists
+	 * @return Compiled expression
+	 * @throws IllegalArgumentException If the expression is not well formed, or has a
+	 * name that is not in vars or arrays
+	 */
+	public static CompiledExpression compile(String expr, ArrayList<Variable> vars, ArrayList<Array> arrays)
+	throws IllegalArgumentException {
+		return compile(expr, SymbolTable.of(vars, arrays), false);
+	}
+
+	/**
+	 * Compiles an expression over a symbol table. If define is false, every name in the
+	 * expression must already be in the table.
+	 */
+	static CompiledExpression compile(String expr, SymbolTable symbols, boolean define)
+	throws IllegalArgumentException {
+		Parser parser = new Parser(expr, symbols);
+		parser.parse(define);
+		return new CompiledExpression(parser);
+	}
+
+	/**
+	 * Returns the symbol table of this expression.
+	 *
+	 * @return Symbol table
+	 */
+	public SymbolTable symbols() {
+		return symbols;
+	}
+
+	/**
+	 * Evaluates the expression with the current values of its variables and arrays in
+	 * the symbol table. Array subscripts are truncated to int, and an item past the end of
+	 * an array is 0. The symbol table must not change during the evaluation; to evaluate
+	 * in several threads at once, give each its own Frame.
+	 *
+	 * @return Result of evaluation
+	 * @throws IllegalArgumentException If there is a division by zero, a subscript is
+	 * negative, or an array has no values
+	 */
+	public float evaluate()
+	throws IllegalArgumentException {
+		return run(symbols.scalars, symbols.arrays);
+	}
+
+	/**
+	 * Evaluates the expression with the values of its variables and arrays in a frame.
+	 * This expression is immutable, and each evaluation uses only its own stack, so any
+	 * number of threads may evaluate it at once, each with a frame of its own.
+	 *
+	 * @param frame Frame of the symbol table of this expression, made after compiling it
+	 * @return Result of evaluation
+	 * @throws IllegalArgumentException If the frame is not of the symbol table of this
+	 * expression or is older than it, there is a division by zero, a subscript is
+	 * negative, or an array has no values
+	 */
+	public float evaluate(Frame frame)
+	throws IllegalArgumentException {
+		checkFrame(frame);
+		return run(frame.scalars, frame.arrays);
+	}
+
+	void checkFrame(Frame frame) {
+		if (frame.symbols != symbols) {
+			throw new IllegalArgumentException("Frame is not of the symbol table of the expression");
+		}
+		if (frame.scalars.length < scalarCount || frame.arrays.length < arrayCount) {
+			throw new IllegalArgumentException("Frame was made before the expression was compiled");
+		}
+	}
+
+	private float run(int[] scalars, int[][] arrays) {
+		float[] stack = new float[maxDepth];
+		int top = -1;
+		for (int i = 0; i < codes.length; i++) {
+			switch (codes[i]) {
+			case PUSH: stack[++top] = constants[args[i]]; break;
+			case LOAD: stack[++top] = scalars[args[i]]; break;
+			case INDEX: stack[top] = item(arrays[args[i]], args[i], (int) stack[top]); break;
+			case ADD: top--; stack[top] += stack[top + 1]; break;
+			case SUBTRACT: top--; stack[top] -= stack[top + 1]; break;
+			case MULTIPLY: top--; stack[top] *= stack[top + 1]; break;
+			case DIVIDE:
+				top--;
+				if (stack[top + 1] == 0) {
+					throw new IllegalArgumentException("Cannot divide by zero");
+				}
+				stack[top] /= stack[top + 1];
+				break;
+			default: stack[top] = -stack[top]; break;
+			}
+		}
+		return stack[0];
+	}
+
+	/**
+	 * Evaluates the expression for every row of a table whose columns are the values of
+	 * variables: columns[s][r] is the value of the variable of slot s in row r. A variable
+	 * whose column is null, or has no column, takes its value in the symbol table in every
+	 * row, as arrays do. Rows are evaluated in blocks of BLOCK_ROWS, one instruction at a
+	 * time over the whole block: the evaluation stack holds a column of values in each
+	 * entry, so each instruction is a simple loop over the rows of the block that the JIT
+	 * compiler can unroll and vectorize.
+	 *
+	 * @param columns Columns of values of the variables, by slot
+	 * @param results Array that receives the result of each row; its length is the number
+	 * of rows, and every column that is not null must have at least that many values
+	 * @throws IllegalArgumentException If there are more columns than variables, a column
+	 * is too short, there is a division by zero in some row, a subscript is negative, or
+	 * an array has no values
+	 */
+	public void evaluate(int[][] columns, float[] results)
+	throws IllegalArgumentException {
+		checkColumns(columns, results.length);
+		evaluateRows(symbols.scalars, symbols.arrays, columns, results, 0, results.length);
+	}
+
+	void checkColumns(int[][] columns, int rows) {
+		if (columns.length > symbols.scalarCount()) {
+			throw new IllegalArgumentException(columns.length + " columns for "
+					+ symbols.scalarCount() + " variables");
+		}
+		for (int slot = 0; slot < columns.length; slot++) {
+			if (columns[slot] != null && columns[slot].length < rows) {
+				throw new IllegalArgumentException("Column of " + symbols.scalarName(slot) + " has "
+						+ columns[slot].length + " values for " + rows + " rows");
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the rows from inclusive, to exclusive, of a table of columns, taking the
+	 * variables with no column from scalars, into the same rows of results.
+	 */
+	void evaluateRows(int[] scalars, int[][] arrays, int[][] columns, float[] results, int from, int to) {
+		float[][] stack = new float[maxDepth][Math.min(BLOCK_ROWS, to - from)];
+		for (; from < to; from += BLOCK_ROWS) {
+			int rows = Math.min(BLOCK_ROWS, to - from);
+			int top = -1;
+			for (int i = 0; i < codes.length; i++) {
+				int code = codes[i];
+				if (code == PUSH || code == LOAD) {
+					float[] out = stack[++top];
+					int[] column = code == LOAD && args[i] < columns.length ? columns[args[i]] : null;
+					if (column != null) {
+						for (int r = 0; r < rows; r++) {
+							out[r] = column[from + r];
+						}
+					} else {
+						Arrays.fill(out, 0, rows, code == PUSH ? constants[args[i]] : scalars[args[i]]);
+					}
+				} else if (code == INDEX) {
+					float[] out = stack[top];
+					int[] values = arrays[args[i]];
+					for (int r = 0; r < rows; r++) {
+						out[r] = item(values, args[i], (int) out[r]);
+					}
+				} else if (code == NEGATE) {
+					float[] out = stack[top];
+					for (int r = 0; r < rows; r++) {
+						out[r] = -out[r];
+					}
+				} else {
+					float[] b = stack[top--];
+					float[] a = stack[top];
+					switch (code) {
+					case ADD:
+						for (int r = 0; r < rows; r++) {
+							a[r] += b[r];
+						}
+						break;
+					case SUBTRACT:
+						for (int r = 0; r < rows; r++) {
+							a[r] -= b[r];
+						}
+						break;
+					case MULTIPLY:
+						for (int r = 0; r < rows; r++) {
+							a[r] *= b[r];
+						}
+						break;
+					default:
+						for (int r = 0; r < rows; r++) {
+							if (b[r] == 0) {
+								throw new IllegalArgumentException("Cannot divide by zero in row " + (from + r));
+							}
+						}
+						for (int r = 0; r < rows; r++) {
+							a[r] /= b[r];
+						}
+						break;
+					}
+				}
+			}
+			System.arraycopy(stack[0], 0, results, from, rows);
+		}
+	}
+
+	private float item(int[] values, int slot, int index) {
+		if (values == null) {
+			throw new IllegalArgumentException("No values for array " + symbols.arrayName(slot));
+		}
+		if (index < 0) {
+			throw new IllegalArgumentException("Negative index " + index + " for array " + symbols.arrayName(slot));
+		}
+		return index < values.length ? values[index] : 0;
+	}
+
+	/**
+	 * The state of the parser while compiling an expression: the expression and the
+	 * position of its next character to parse, and the program emitted so far.
+	 */
+	private static final class Parser {
+		final String text;
+		final SymbolTable symbols;
+		int position;
+		int[] codes = new int[16], args = new int[16];
+		int size;
+		float[] constants = new float[4];
+		int constantCount;
+		int maxDepth;
+
+		Parser(String text, SymbolTable symbols) {
+			this.text = text;
+			this.symbols = symbols;
+		}
+
+		/**
+		 * Parses the expression in one left-to-right pass, by operator precedence
+		 * (shunting-yard). Operands are emitted as they are read; an operator waits on the
+		 * operator stack until an operator of lower or equal precedence, or the end of its
+		 * enclosing parentheses or subscript, is read, and is then emitted. An open
+		 * parenthesis is pushed as OPEN, an open subscript as a mark that also holds the
+		 * index of its array, so the INDEX instruction is emitted at the matching ']'. The
+		 * operand stack holds, for each operand emitted and not yet consumed by an operator,
+		 * the position at which it starts; its size is the depth of the evaluation stack.
+		 */
+		private void parse(boolean define) {
+			Stack<Integer> operators = new Stack<Integer>();
+			Stack<Integer> operands = new Stack<Integer>();
+			boolean operand = true;
+			position = 0;
+			while (true) {
+				char c = peek();
+				int start = position;
+				if (operand) {
+					if (c == '-') {
+						position++;
+						operators.push(NEGATE);
+						continue;
+					}
+					if (c == '(') {
+						position++;
+						operators.push(OPEN);
+						continue;
+					}
+					if (Character.isLetter(c)) {
+						while (position < text.length() && Character.isLetter(text.charAt(position))) {
+							position++;
+						}
+						String name = text.substring(start, position);
+						if (peek() == '[') {
+							position++;
+							operators.push(SUBSCRIPT - slot(define ? symbols.defineArray(name) : symbols.arraySlot(name), name));
+							continue;
+						}
+						emit(LOAD, slot(define ? symbols.defineScalar(name) : symbols.scalarSlot(name), name));
+					} else if (Character.isDigit(c) || c == '.') {
+						while (position < text.length()
+								&& (Character.isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+							position++;
+						}
+						try {
+							emit(PUSH, constant(Float.parseFloat(text.substring(start, position))));
+						} catch (NumberFormatException e) {
+							throw error("Invalid number " + text.substring(start, position));
+						}
+					} else {
+						throw error(c == 0 ? "Unexpected end of expression" : "Unexpected '" + c + "'");
+					}
+					operands.push(start);
+					maxDepth = Math.max(maxDepth, operands.size());
+					operand = false;
+					continue;
+				}
+				if (c == '+' || c == '-' || c == '*' || c == '/') {
+					int code = c == '+' ? ADD : c == '-' ? SUBTRACT : c == '*' ? MULTIPLY : DIVIDE;
+					while (!operators.isEmpty() && operators.peek() >= 0
+							&& precedence(operators.peek()) >= precedence(code)) {
+						reduce(operators.pop(), operands);
+					}
+					position++;
+					operators.push(code);
+					operand = true;
+				} else if (c == ')' || c == ']') {
+					while (!operators.isEmpty() && operators.peek() >= 0) {
+						reduce(operators.pop(), operands);
+					}
+					int mark = operators.isEmpty() ? 0 : operators.pop();
+					if (c == ')' ? mark != OPEN : mark > SUBSCRIPT) {
+						throw error("Unmatched '" + c + "'");
+					}
+					if (c == ']') {
+						emit(INDEX, SUBSCRIPT - mark);
+					}
+					position++;
+				} else if (c == 0) {
+					break;
+				} else {
+					throw error("Unexpected '" + c + "'");
+				}
+			}
+			while (!operators.isEmpty()) {
+				int code = operators.pop();
+				if (code < 0) {
+					throw error(code == OPEN ? "Expected ')'" : "Expected ']'");
+				}
+				reduce(code, operands);
+			}
+		}
+
+		private static int precedence(int code) {
+			return code == NEGATE ? 3 : code == MULTIPLY || code == DIVIDE ? 2 : 1;
+		}
+
+		/**
+		 * Emits an operator, replacing its operands on the operand stack by its result.
+		 */
+		private void reduce(int code, Stack<Integer> operands) {
+			int start = operands.pop();
+			if (code != NEGATE) {
+				start = operands.pop();
+			}
+			emit(code, 0);
+			operands.push(start);
+		}
+
+		private int slot(int slot, String name) {
+			if (slot == -1) {
+				throw error("Unknown symbol " + name);
+			}
+			return slot;
+		}
+
+		private int constant(float value) {
+			if (constantCount == constants.length) {
+				constants = Arrays.copyOf(constants, 2 * constantCount);
+			}
+			constants[constantCount] = value;
+			return constantCount++;
+		}
+
+		private void emit(int code, int arg) {
+			if (size == codes.length) {
+				codes = Arrays.copyOf(codes, 2 * size);
+				args = Arrays.copyOf(args, 2 * size);
+			}
+			codes[size] = code;
+			args[size] = arg;
+			size++;
+		}
+
+		/**
+		 * Returns the next character that is not a space, without consuming it, 0 at the end.
+		 */
+		private char peek() {
+			skipSpaces();
+			return position < text.length() ? text.charAt(position) : 0;
+		}
+
+		private void skipSpaces() {
+			while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+				position++;
+			}
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at position " + position + " in " + text);
+		}
+	}
+}
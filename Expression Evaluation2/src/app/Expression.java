@@ -5,8 +5,6 @@ import java.rmi.UnexpectedException;
 import java.util.*;
 import java.util.regex.*;
 
-import structures.Stack;
-
 public class Expression {
 
 	public static String delims = " \t*+-/()[]";
@@ -34,16 +32,19 @@ public class Expression {
         // Now create matcher object.
         Matcher m = pattern.matcher(expr);
 
+        // symbols already in the lists, to find duplicates in constant time
+        HashSet<Variable> varSet = new HashSet<Variable>(vars);
+        HashSet<Array> arraySet = new HashSet<Array>(arrays);
         while (m.find()) {
             if (m.group(2) == null) {
                 Variable var = new Variable(m.group(1));
-                if (!vars.contains(var)) {
+                if (varSet.add(var)) {
                     vars.add(var);
                 }
             }
             else {
                 Array array = new Array(m.group(1));
-                if (!arrays.contains(array)) {
+                if (arraySet.add(array)) {
                     arrays.add(array);
                 }
             }
@@ -61,7 +62,8 @@ public class Expression {
     }
 
     /**
-     * Loads values for variables and arrays in the expression
+     * Loads values for variables and arrays in the expression. Names are looked up in
+     * hash maps built once from the lists, so each line is loaded in constant time.
      *
      * @param sc Scanner for values input
      * @throws IOException If there is a problem with the input
@@ -71,22 +73,27 @@ public class Expression {
     public static void
     loadVariableValues(Scanner sc, ArrayList<Variable> vars, ArrayList<Array> arrays)
     throws IOException {
+        HashMap<String, Variable> varMap = new HashMap<String, Variable>();
+        for (Variable var : vars) {
+            varMap.put(var.name, var);
+        }
+        HashMap<String, Array> arrayMap = new HashMap<String, Array>();
+        for (Array arr : arrays) {
+            arrayMap.put(arr.name, arr);
+        }
         while (sc.hasNextLine()) {
             StringTokenizer st = new StringTokenizer(sc.nextLine().trim());
             int numTokens = st.countTokens();
             String tok = st.nextToken();
-            Variable var = new Variable(tok);
-            Array arr = new Array(tok);
-            int vari = vars.indexOf(var);
-            int arri = arrays.indexOf(arr);
-            if (vari == -1 && arri == -1) {
+            Variable var = varMap.get(tok);
+            Array arr = arrayMap.get(tok);
+            if (var == null && arr == null) {
             	continue;
             }
             int num = Integer.parseInt(st.nextToken());
             if (numTokens == 2) { // vars symbol
-                vars.get(vari).value = num;
+                var.value = num;
             } else { // array symbol
-            	arr = arrays.get(arri);
             	arr.values = new int[num];
                 // following are (index,val) pairs
                 while (st.hasMoreTokens()) {
@@ -101,18 +108,17 @@ public class Expression {
     }
 
     /**
-     * Evaluates the expression.
+     * Evaluates the expression. The expression is compiled with CompiledExpression.compile;
+     * to evaluate it many times, compile it once and call evaluate on the result instead.
      *
      * @param vars The variables array list, with values for all variables in the expression
      * @param arrays The arrays array list, with values for all array items
-     * @return Result of evaluation
+     * @return Result of evaluation, -1 if the expression is not valid or cannot be evaluated
      */
     public static float
     evaluate(String expr, ArrayList<Variable> vars, ArrayList<Array> arrays) {
         try {
-            expr = expr.replaceAll("\\s+","");
-            System.out.println("Expression: " + expr);
-            return evaluate2(expr, vars, arrays);
+            return CompiledExpression.compile(expr, vars, arrays).evaluate();
         } catch (IllegalArgumentException e) {
             e.printStackTrace();
         } catch (Exception other) {
@@ -121,247 +127,6 @@ public class Expression {
         return -1;
     }
 
-    //
-    // Private methods
-    //
-    private static float evaluate2(String expr, ArrayList<Variable> vars, ArrayList<Array> arrays) throws IllegalArgumentException{
-        System.out.println();
-        System.out.println("Evaluating: " + expr);
-
-        StringTokenizer tokenizer = new StringTokenizer(expr, delims, true);
-        int tokenizerPosition = 0;
-        float lhs = 0;
-        while (tokenizer.hasMoreTokens()) {
-            String token = tokenizer.nextToken();
-            tokenizerPosition += token.length();
-            if (isOpenParantheses(token)) {
-                int endOfSubExpression = runTokenizerToEndOfCurvySubExpression(tokenizer, tokenizerPosition);
-                String subExpression = expr.substring(tokenizerPosition, endOfSubExpression);
-                tokenizerPosition = endOfSubExpression+1;
-                lhs = evaluate2(subExpression, vars, arrays);
-            } else if (isOperation(token) && isHigherOrderOperator(token, nextOperation(expr.substring(tokenizerPosition, expr.length())))) {
-                String nextToken = tokenizer.nextToken();
-                tokenizerPosition += nextToken.length();
-                if (isOpenParantheses(nextToken)) {
-                    int endOfSubExpression = runTokenizerToEndOfCurvySubExpression(tokenizer, tokenizerPosition);
-                    String subExpression = expr.substring(tokenizerPosition, endOfSubExpression);
-                    tokenizerPosition = endOfSubExpression+1;
-                    float subExpressionValue = evaluate2(subExpression, vars, arrays);
-                    lhs = performOperation(lhs, subExpressionValue, token);
-                } else {
-                    try {
-                        float next = eval(nextToken, vars);
-                        lhs = performOperation(lhs, next, token);
-                    } catch (NoSuchElementException e) {
-                        Array array = findArray(nextToken, arrays);
-                        String openSquareBracket = tokenizer.nextToken();
-                        tokenizerPosition += nextToken.length();
-                        assert array != null;
-                        if (isOpenSquareParantheses(openSquareBracket)) {
-                            int endOfSquareSubExpression = runTokenizerToEndOfSquareSubExpression(tokenizer, tokenizerPosition);
-                            String subExpression = expr.substring(tokenizerPosition, endOfSquareSubExpression);
-                            tokenizerPosition = endOfSquareSubExpression+1;
-                            int arrayIndex = (int) evaluate2(subExpression, vars, arrays);
-                            float arrayValue = arrayValue(array, arrayIndex);
-                            System.out.println("Evaluated array " + array.name + "[" + arrayIndex + "] to " + arrayValue);
-                            lhs = performOperation(lhs, arrayValue, token);
-                        }
-                    }
-                }
-            } else if (isHigherOrderOperator(token, tokenizer.nextToken())) {
-                String nextToken = tokenizer.nextToken();
-                tokenizerPosition += nextToken.length();
-                if (isOpenParantheses(nextToken)) {
-                    int endOfSubExpression = runTokenizerToEndOfCurvySubExpression(tokenizer, tokenizerPosition);
-                    String subExpression = expr.substring(tokenizerPosition, endOfSubExpression);
-                    tokenizerPosition = endOfSubExpression+1;
-                    float subExpressionValue = evaluate2(subExpression, vars, arrays);
-                    lhs = performOperation(lhs, subExpressionValue, token);
-                } else {
-                    try {
-                        float next = eval(nextToken, vars);
-                        lhs = performOperation(lhs, next, token);
-                    } catch (NoSuchElementException e) {
-                        Array array = findArray(nextToken, arrays);
-                        String openSquareBracket = tokenizer.nextToken();
-                        tokenizerPosition += nextToken.length();
-                        assert array != null;
-                        if (isOpenSquareParantheses(openSquareBracket)) {
-                            int endOfSquareSubExpression = runTokenizerToEndOfSquareSubExpression(tokenizer, tokenizerPosition);
-                            String subExpression = expr.substring(tokenizerPosition, endOfSquareSubExpression);
-                            tokenizerPosition = endOfSquareSubExpression+1;
-                            int arrayIndex = (int) evaluate2(subExpression, vars, arrays);
-                            float arrayValue = arrayValue(array, arrayIndex);
-                            System.out.println("Evaluated array " + array.name + "[" + arrayIndex + "] to " + arrayValue);
-                            lhs = performOperation(lhs, arrayValue, token);
-                        }
-                    }
-                }
-            }else if (isOperation(token)) {
-                String rhsExpression = expr.substring(tokenizerPosition, expr.length());
-                float rhs = evaluate2(rhsExpression, vars, arrays);
-                return performOperation(lhs, rhs, token);
-            } else {
-                try {
-                    lhs = eval(token, vars);
-                    System.out.println("Evaluated lhs '" + token + "' to " + lhs);
-                } catch (NoSuchElementException e) {
-                    Array array = findArray(token, arrays);
-                    String openSquareBracket = tokenizer.nextToken();
-                    tokenizerPosition += openSquareBracket.length();
-                    assert array != null;
-                    if (isOpenSquareParantheses(openSquareBracket)) {
-                        int endOfSquareSubExpression = runTokenizerToEndOfSquareSubExpression(tokenizer, tokenizerPosition);
-                        String subExpression = expr.substring(tokenizerPosition, endOfSquareSubExpression);
-                        tokenizerPosition = endOfSquareSubExpression+1;
-                        int arrayIndex = (int) evaluate2(subExpression, vars, arrays);
-                        lhs = arrayValue(array, arrayIndex);
-                        System.out.println("Evaluated array " + array.name + "[" + arrayIndex + "] to " + lhs);
-                    }
-                }
-            }
-        }
-        return lhs;
-    }
-
-    private static float eval(String string, ArrayList<Variable> vars) throws NoSuchElementException {
-        try {
-            return Float.parseFloat(string);
-        } catch (NumberFormatException exception) {
-            Variable variable = findVariable(string, vars);
-            if (variable == null) {
-                throw new NoSuchElementException();
-            }
-            return variable.value;
-        }
-    }
-
-    private static int runTokenizerToEndOfCurvySubExpression(StringTokenizer tokenizer, int tokenizerPosition) {
-        int count = 1;
-        while (tokenizer.hasMoreTokens()) {
-            String next = tokenizer.nextToken();
-            tokenizerPosition += next.length();
-            if (next.equals("(")) {
-                count++;
-            }
-            if (next.equals(")")) {
-                count--;
-                if (count == 0) {
-                    break;
-                }
-            }
-        }
-        return tokenizerPosition - 1;
-    }
-
-    private static int runTokenizerToEndOfSquareSubExpression(StringTokenizer tokenizer, int tokenizerPosition) {
-        int count = 1;
-        while (tokenizer.hasMoreTokens()) {
-            String next = tokenizer.nextToken();
-            tokenizerPosition += next.length();
-            if (next.equals("[")) {
-                count++;
-            }
-            if (next.equals("]")) {
-                count--;
-                if (count == 0) {
-                    break;
-                }
-            }
-        }
-        return tokenizerPosition - 1;
-    }
-
-    private static String nextOperation(String expr) {
-        StringTokenizer tokenizer = new StringTokenizer(expr, delims, true);
-        while (tokenizer.hasMoreTokens()) {
-            String next = tokenizer.nextToken();
-            if (isOperation(next)) {
-                return next;
-            }
-
-        }
-        return null;
-    }
-
-    private static float performOperation(float first, float second, String operator)  throws IllegalArgumentException {
-        float result;
-        if (operator.equals("+")) {
-            result = first + second;
-            System.out.println("Adding " + first + " and " + second + " = " + result);
-        } else if (operator.equals("-")) {
-                result = first - second;
-            System.out.println("Subtrating " + first + " and " + second + " = " + result);
-        } else if (operator.equals("*")) {
-            result = first * second;
-            System.out.println("Multiplying " + first + " and " + second + " = " + result);
-        } else if (operator.equals("/")) {
-            if (second == 0) {
-                throw new IllegalArgumentException("Cannot divide by zero");
-            }
-            result = first / second;
-            System.out.println("Dividing " + first + " and " + second + " = " + result);
-        } else {
-            throw new IllegalArgumentException(operator + " is not a valid operator");
-        }
-        return result;
-    }
-
-    //
-    // Operation helpers
-    //
-    private static boolean isOperation(String token) {
-        return token.equals("+") || token.equals("-") || token.equals("*") || token.equals("/");
-    }
-
-    private static boolean isOpenSquareParantheses(String token) { return token.equals("["); }
-    private static boolean isOpenParantheses(String token) { return token.equals("("); }
-    private static boolean isHigherOrderOperator(String token, String nextToken) {
-        if (nextToken == null) return true;
-        if (token.equals("*") || token.equals("/")) {
-            return true;
-        } else if (nextToken.equals("*") || nextToken.equals("/")) {
-            return false;
-        } else {
-            return token.equals("-");
-        }
-    }
-
-
-    //
-    // Find
-    //
-    private static Variable findVariable(String name, ArrayList<Variable> vars) {
-        for (Variable symbol : vars) {
-            if (symbol.name.equals(name)) {
-                return symbol;
-            }
-        }
-        return null;
-    }
-
-    private static Array findArray(String name, ArrayList<Array> arrays) {
-        for (Array symbol : arrays) {
-            if (symbol.name.equals(name)) {
-                return symbol;
-            }
-        }
-        return null;
-    }
-
-    private static float arrayValue(Array array, int index) {
-        if (array == null) {
-            System.out.println("WARNING: Array is null");
-            return 0;
-        }
-        if (index < array.values.length) {
-            return array.values[index];
-        } else {
-            System.out.println("WARNING: Array index out of bounds");
-            return 0;
-        }
-    }
-
     //
     // Print
     ///
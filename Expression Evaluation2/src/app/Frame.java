@@ -0,0 +1,88 @@
+package app;
+
+import java.util.Arrays;
+
+/**
+ * This class holds a set of values for the variables and arrays of a symbol table, apart
+ * from the values in the table itself. Expressions compiled over the table are evaluated
+ * with a frame by CompiledExpression.evaluate(Frame), so threads that each fill in a
+ * frame of their own can evaluate the same expressions at once, with no locking. A frame
+ * has the slots that the table had when the frame was made.
+ *
+ * @author ru-nb-cs112
+ *
+ */
+public class Frame {
+
+	/**
+	 * Symbol table of this frame.
+	 */
+	final SymbolTable symbols;
+
+	/**
+	 * Values of variables, and of arrays, by slot.
+	 */
+	final int[] scalars;
+	final int[][] arrays;
+
+	/**
+	 * Initializes this frame with the current values in a symbol table. Array values are
+	 * shared, not copied.
+	 *
+	 * @param symbols Symbol table
+	 */
+	Frame(SymbolTable symbols) {
+		this.symbols = symbols;
+		scalars = Arrays.copyOf(symbols.scalars, symbols.scalarCount());
+		arrays = Arrays.copyOf(symbols.arrays, symbols.arrayCount());
+	}
+
+	/**
+	 * Returns the symbol table of this frame.
+	 *
+	 * @return Symbol table
+	 */
+	public SymbolTable symbols() {
+		return symbols;
+	}
+
+	/**
+	 * Returns the value of a variable.
+	 *
+	 * @param slot Slot
+	 * @return Value
+	 */
+	public int scalar(int slot) {
+		return scalars[slot];
+	}
+
+	/**
+	 * Sets the value of a variable.
+	 *
+	 * @param slot Slot
+	 * @param value Value
+	 */
+	public void setScalar(int slot, int value) {
+		scalars[slot] = value;
+	}
+
+	/**
+	 * Returns the values of an array.
+	 *
+	 * @param slot Slot
+	 * @return Values, null if not loaded
+	 */
+	public int[] array(int slot) {
+		return arrays[slot];
+	}
+
+	/**
+	 * Sets the values of an array.
+	 *
+	 * @param slot Slot
+	 * @param values Values, which are shared, not copied
+	 */
+	public void setArray(int slot, int[] values) {
+		arrays[slot] = values;
+	}
+}
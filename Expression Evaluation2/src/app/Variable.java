@@ -46,5 +46,12 @@ public class Variable {
 		Variable ss = (Variable)o;
 		return name.equals(ss.name);
 	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	public int hashCode() {
+		return name.hashCode();
+	}
 }
 
@@ -0,0 +1,158 @@
+package poly;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class reads and writes polynomials in a compact binary format, for storing large
+ * polynomials between jobs without re-parsing text. The format, all little-endian, is:
+ * <pre>
+ *     int      MAGIC
+ *     int      VERSION
+ *     int      n, the number of terms
+ *     int[n]   degrees, in linked list order
+ *     float[n] coefficients, parallel to degrees
+ * </pre>
+ * The reader memory-maps the file and copies the two arrays out in bulk, so loading
+ * runs at close to I/O speed. Callers that work on arrays can load straight into a
+ * DensePolynomial without building a linked list.
+ *
+ * @author runb-cs112
+ *
+ */
+public class BinaryPolynomial {
+
+	/**
+	 * Magic number at the start of every file, "POLY" in ASCII.
+	 */
+	public static final int MAGIC = 0x504F4C59;
+
+	/**
+	 * Format version written by this class.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Size of the header, in bytes.
+	 */
+	static final int HEADER_SIZE = 12;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Writes a polynomial to a file in binary format, replacing any previous contents.
+	 *
+	 * @param poly Polynomial (front of linked list) to be written
+	 * @param file File to be written
+	 * @throws IOException If there is any error in writing the file
+	 */
+	public static void write(Node poly, File file)
+	throws IOException {
+		int count = 0;
+		for (Node current = poly; current != null; current = current.next) {
+			count++;
+		}
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(0);
+			FileChannel channel = raf.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(count);
+			for (Node current = poly; current != null; current = current.next) {
+				if (!buffer.hasRemaining()) {
+					drain(buffer, channel);
+				}
+				buffer.putInt(current.term.degree);
+			}
+			for (Node current = poly; current != null; current = current.next) {
+				if (!buffer.hasRemaining()) {
+					drain(buffer, channel);
+				}
+				buffer.putFloat(current.term.coeff);
+			}
+			drain(buffer, channel);
+		} finally {
+			raf.close();
+		}
+	}
+
+	private static void drain(ByteBuffer buffer, FileChannel channel)
+	throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Reads a polynomial written by write, and returns it as a new linked list in the
+	 * order it was written.
+	 *
+	 * @param file File to be read
+	 * @return The polynomial linked list (front node), null if there are no terms
+	 * @throws IOException If the file cannot be read or is not in binary polynomial format
+	 */
+	public static Node read(File file)
+	throws IOException {
+		return readTerms(file).toNode();
+	}
+
+	/**
+	 * Reads a polynomial written by write directly into a dense polynomial, without
+	 * building a linked list.
+	 *
+	 * @param file File to be read
+	 * @return The dense polynomial
+	 * @throws IOException If the file cannot be read or is not in binary polynomial format
+	 * @throws IllegalArgumentException If the polynomial has a term of negative degree
+	 */
+	public static DensePolynomial readDense(File file)
+	throws IOException {
+		return DensePolynomial.of(readTerms(file));
+	}
+
+	/**
+	 * Reads the terms of a polynomial written by write into primitive arrays.
+	 */
+	static TermArrays readTerms(File file)
+	throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			long size = channel.size();
+			if (size < HEADER_SIZE) {
+				throw new IOException(file + " is too short for a binary polynomial");
+			}
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException(file + " is too large to be mapped");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException(file + " is not a binary polynomial");
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException(file + " has unsupported version " + version);
+			}
+			int count = buffer.getInt();
+			if (count < 0 || size != HEADER_SIZE + 8L * count) {
+				throw new IOException(file + " has a term count that does not match its size");
+			}
+			TermArrays terms = new TermArrays(count);
+			buffer.asIntBuffer().get(terms.degrees, 0, count);
+			buffer.position(HEADER_SIZE + 4 * count);
+			buffer.asFloatBuffer().get(terms.coeffs, 0, count);
+			terms.size = count;
+			return terms;
+		} finally {
+			raf.close();
+		}
+	}
+}
@@ -0,0 +1,279 @@
+package poly;
+
+import java.util.Arrays;
+
+/**
+ * This class implements the multiplication of dense coefficient arrays (the
+ * convolution of the arrays), by schoolbook, Karatsuba or FFT depending on the
+ * length of the shorter operand. See DensePolynomial for the thresholds. Long
+ * operands with integer coefficients whose product is exactly representable in double
+ * go through a number-theoretic transform instead of the FFT, so every integer product
+ * is exact whatever its length, as it is by the schoolbook and Karatsuba methods.
+ *
+ * @author runb-cs112
+ *
+ */
+final class Convolution {
+
+	private Convolution() {
+	}
+
+	/**
+	 * Multiplies two coefficient arrays, each indexed by degree, with the thresholds of
+	 * DensePolynomial.
+	 *
+	 * @param a First operand, non-empty
+	 * @param b Second operand, non-empty
+	 * @return Product, of length a.length + b.length - 1
+	 */
+	static double[] multiply(double[] a, double[] b) {
+		return multiply(a, b, DensePolynomial.KARATSUBA_THRESHOLD, DensePolynomial.FFT_THRESHOLD);
+	}
+
+	/**
+	 * Multiplies two coefficient arrays, each indexed by degree, with given thresholds.
+	 *
+	 * @param a First operand, non-empty
+	 * @param b Second operand, non-empty
+	 * @param karatsubaThreshold Length of the shorter operand from which Karatsuba's
+	 * method is used, at least 2
+	 * @param fftThreshold Length of the shorter operand from which the FFT (or, for exact
+	 * integer products, the number-theoretic transform) is used
+	 * @return Product, of length a.length + b.length - 1
+	 */
+	static double[] multiply(double[] a, double[] b, int karatsubaThreshold, int fftThreshold) {
+		int shorter = Math.min(a.length, b.length);
+		if (shorter >= fftThreshold) {
+			return isExact(a, b) ? exact(a, b) : fft(a, b);
+		}
+		if (shorter >= karatsubaThreshold) {
+			return karatsuba(a, b, karatsubaThreshold);
+		}
+		return schoolbook(a, b);
+	}
+
+	/**
+	 * Returns true if a and b have integer coefficients, the product of the sums of their
+	 * absolute values is below 2^53, and their product is short enough for
+	 * NumberTheoreticTransform. Every partial sum of the product, by any method, is then
+	 * an integer below 2^53, so it is exact in double.
+	 */
+	static boolean isExact(double[] a, double[] b) {
+		if (a.length + b.length - 1 > NumberTheoreticTransform.MAX_LENGTH) {
+			return false;
+		}
+		return sumAbs(a) * sumAbs(b) < 0x1p53;
+	}
+
+	/**
+	 * Returns the sum of the absolute values of a, infinity if a has a coefficient that is
+	 * not an integer.
+	 */
+	private static double sumAbs(double[] a) {
+		double sum = 0;
+		for (double coeff : a) {
+			if (coeff != Math.rint(coeff)) {
+				return Double.POSITIVE_INFINITY;
+			}
+			sum += Math.abs(coeff);
+		}
+		return sum;
+	}
+
+	/**
+	 * Multiplies two integer coefficient arrays exactly, with a number-theoretic transform.
+	 *
+	 * @param a First operand, non-empty, integer coefficients
+	 * @param b Second operand, non-empty, integer coefficients
+	 * @return Product, of length a.length + b.length - 1
+	 */
+	static double[] exact(double[] a, double[] b) {
+		long[] product = NumberTheoreticTransform.multiplyExact(toLong(a), toLong(b));
+		double[] values = new double[product.length];
+		for (int i = 0; i < product.length; i++) {
+			values[i] = product[i];
+		}
+		return values;
+	}
+
+	private static long[] toLong(double[] a) {
+		long[] values = new long[a.length];
+		for (int i = 0; i < a.length; i++) {
+			values[i] = (long) a[i];
+		}
+		return values;
+	}
+
+	/**
+	 * Multiplies two coefficient arrays term by term.
+	 *
+	 * @param a First operand, non-empty
+	 * @param b Second operand, non-empty
+	 * @return Product, of length a.length + b.length - 1
+	 */
+	static double[] schoolbook(double[] a, double[] b) {
+		double[] product = new double[a.length + b.length - 1];
+		for (int i = 0; i < a.length; i++) {
+			double ai = a[i];
+			if (ai == 0) {
+				continue;
+			}
+			for (int j = 0; j < b.length; j++) {
+				product[i + j] += ai * b[j];
+			}
+		}
+		return product;
+	}
+
+	/**
+	 * Multiplies two coefficient arrays by Karatsuba's method, down to blocks shorter than
+	 * DensePolynomial.KARATSUBA_THRESHOLD.
+	 *
+	 * @param a First operand, non-empty
+	 * @param b Second operand, non-empty
+	 * @return Product, of length a.length + b.length - 1
+	 */
+	static double[] karatsuba(double[] a, double[] b) {
+		return karatsuba(a, b, DensePolynomial.KARATSUBA_THRESHOLD);
+	}
+
+	/**
+	 * Multiplies two coefficient arrays by Karatsuba's method. The longer operand
+	 * is cut into blocks as long as the shorter one, and each block is multiplied
+	 * with the shorter operand as a balanced product, split in halves down to blocks
+	 * shorter than threshold, which are multiplied term by term.
+	 *
+	 * @param a First operand, non-empty
+	 * @param b Second operand, non-empty
+	 * @param threshold Block length below which products are term by term, at least 2
+	 * @return Product, of length a.length + b.length - 1
+	 */
+	static double[] karatsuba(double[] a, double[] b, int threshold) {
+		if (a.length < b.length) {
+			double[] swap = a;
+			a = b;
+			b = swap;
+		}
+		int n = b.length;
+		double[] product = new double[a.length + n - 1];
+		for (int offset = 0; offset < a.length; offset += n) {
+			double[] block = Arrays.copyOfRange(a, offset, offset + n);
+			double[] partial = karatsubaBalanced(block, b, threshold);
+			int length = Math.min(partial.length, product.length - offset);
+			for (int i = 0; i < length; i++) {
+				product[offset + i] += partial[i];
+			}
+		}
+		return product;
+	}
+
+	private static double[] karatsubaBalanced(double[] a, double[] b, int threshold) {
+		int n = a.length;
+		if (n < threshold) {
+			return schoolbook(a, b);
+		}
+		int half = n / 2;
+		double[] a0 = Arrays.copyOfRange(a, 0, half);
+		double[] a1 = Arrays.copyOfRange(a, half, n);
+		double[] b0 = Arrays.copyOfRange(b, 0, half);
+		double[] b1 = Arrays.copyOfRange(b, half, n);
+		double[] low = karatsubaBalanced(a0, b0, threshold);
+		double[] high = karatsubaBalanced(a1, b1, threshold);
+		for (int i = 0; i < half; i++) {
+			a1[i] += a0[i];
+			b1[i] += b0[i];
+		}
+		double[] middle = karatsubaBalanced(a1, b1, threshold);
+		for (int i = 0; i < low.length; i++) {
+			middle[i] -= low[i];
+		}
+		for (int i = 0; i < high.length; i++) {
+			middle[i] -= high[i];
+		}
+		double[] product = new double[2 * n - 1];
+		System.arraycopy(low, 0, product, 0, low.length);
+		System.arraycopy(high, 0, product, 2 * half, high.length);
+		for (int i = 0; i < middle.length; i++) {
+			product[half + i] += middle[i];
+		}
+		return product;
+	}
+
+	/**
+	 * Multiplies two coefficient arrays with a complex radix-2 fast Fourier transform,
+	 * computed in double precision.
+	 *
+	 * @param a First operand, non-empty
+	 * @param b Second operand, non-empty
+	 * @return Product, of length a.length + b.length - 1
+	 */
+	static double[] fft(double[] a, double[] b) {
+		int length = a.length + b.length - 1;
+		int n = Integer.highestOneBit(length);
+		if (n < length) {
+			n <<= 1;
+		}
+		double[] cos = new double[n / 2];
+		double[] sin = new double[n / 2];
+		for (int k = 0; k < n / 2; k++) {
+			double angle = 2 * Math.PI * k / n;
+			cos[k] = Math.cos(angle);
+			sin[k] = Math.sin(angle);
+		}
+		double[] aRe = Arrays.copyOf(a, n), aIm = new double[n];
+		double[] bRe = Arrays.copyOf(b, n), bIm = new double[n];
+		transform(aRe, aIm, cos, sin, false);
+		transform(bRe, bIm, cos, sin, false);
+		for (int k = 0; k < n; k++) {
+			double re = aRe[k] * bRe[k] - aIm[k] * bIm[k];
+			double im = aRe[k] * bIm[k] + aIm[k] * bRe[k];
+			aRe[k] = re;
+			aIm[k] = im;
+		}
+		transform(aRe, aIm, cos, sin, true);
+		double[] product = new double[length];
+		for (int k = 0; k < length; k++) {
+			product[k] = aRe[k] / n;
+		}
+		return product;
+	}
+
+	/**
+	 * In-place iterative radix-2 transform. The inverse transform is not scaled by 1/n.
+	 */
+	private static void transform(double[] re, double[] im, double[] cos, double[] sin, boolean inverse) {
+		int n = re.length;
+		for (int i = 1, j = 0; i < n; i++) {
+			int bit = n >> 1;
+			for (; (j & bit) != 0; bit >>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if (i < j) {
+				double t = re[i];
+				re[i] = re[j];
+				re[j] = t;
+				t = im[i];
+				im[i] = im[j];
+				im[j] = t;
+			}
+		}
+		for (int size = 2; size <= n; size <<= 1) {
+			int half = size >> 1;
+			int step = n / size;
+			for (int start = 0; start < n; start += size) {
+				for (int k = 0; k < half; k++) {
+					double wRe = cos[k * step];
+					double wIm = inverse ? sin[k * step] : -sin[k * step];
+					int even = start + k, odd = even + half;
+					double tRe = re[odd] * wRe - im[odd] * wIm;
+					double tIm = re[odd] * wIm + im[odd] * wRe;
+					re[odd] = re[even] - tRe;
+					im[odd] = im[even] - tIm;
+					re[even] += tRe;
+					im[even] += tIm;
+				}
+			}
+		}
+	}
+}
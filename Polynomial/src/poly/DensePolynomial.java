@@ -0,0 +1,268 @@
+package poly;
+
+import java.util.Arrays;
+
+/**
+ * This class implements a polynomial stored densely, as an array of coefficients
+ * indexed by degree. It is meant for polynomials in which most degrees are present,
+ * where it avoids the per-term Node and Term objects of the linked list form.
+ *
+ * @author runb-cs112
+ *
+ */
+public class DensePolynomial {
+
+	/**
+	 * Smallest fraction of degrees 0..maximum degree that must be present in a
+	 * polynomial for it to be considered dense.
+	 */
+	public static final float MIN_DENSITY = 0.25f;
+
+	/**
+	 * Length of the shorter operand from which multiply switches from the schoolbook
+	 * method to Karatsuba's method. It is 96 unless the system property
+	 * poly.karatsubaThreshold is set to an integer of at least 2 when this class is loaded.
+	 * multiply(DensePolynomial, DensePolynomial, int, int) takes thresholds for one call.
+	 */
+	public static final int KARATSUBA_THRESHOLD = threshold("poly.karatsubaThreshold", 96, 2);
+
+	/**
+	 * Length of the shorter operand from which multiply switches to an FFT, computed
+	 * in double precision. Each coefficient of an FFT product differs from the exact
+	 * product by at most FFT_TOLERANCE times the product of the sums of the absolute
+	 * values of the coefficients of the operands, before the result is rounded to float.
+	 * Operands with integer coefficients, when that product of sums is below 2^53, are
+	 * multiplied exactly by a number-theoretic transform instead (see Convolution). It is
+	 * 512 unless the system property poly.fftThreshold is set to a positive integer when
+	 * this class is loaded.
+	 */
+	public static final int FFT_THRESHOLD = threshold("poly.fftThreshold", 512, 1);
+
+	/**
+	 * Error bound of FFT multiplication, relative to the product of the sums of the
+	 * absolute values of the coefficients of the operands. See FFT_THRESHOLD.
+	 */
+	public static final double FFT_TOLERANCE = 1e-12;
+
+	/**
+	 * Returns the value of an integer system property, or the default value if the
+	 * property is not set, is not an integer, or is below min.
+	 */
+	private static int threshold(String property, int defaultValue, int min) {
+		Integer value = Integer.getInteger(property);
+		return value == null || value < min ? defaultValue : value;
+	}
+
+	/**
+	 * Coefficients, indexed by degree. The last entry, if any, is non-zero.
+	 */
+	float[] coeffs;
+
+	/**
+	 * Initializes this polynomial with the given coefficients, indexed by degree.
+	 * The array is not copied.
+	 *
+	 * @param coeffs Coefficients, coeffs[i] is the coefficient of x^i
+	 */
+	public DensePolynomial(float[] coeffs) {
+		int length = coeffs.length;
+		while (length > 0 && coeffs[length - 1] == 0) {
+			length--;
+		}
+		this.coeffs = length == coeffs.length ? coeffs : Arrays.copyOf(coeffs, length);
+	}
+
+	/**
+	 * Builds a dense polynomial from a polynomial linked list.
+	 *
+	 * @param poly Polynomial (front of linked list)
+	 * @return Dense polynomial with the same terms
+	 * @throws IllegalArgumentException If poly has a term of negative degree
+	 */
+	public static DensePolynomial fromNode(Node poly) {
+		return of(TermArrays.of(poly));
+	}
+
+	/**
+	 * Builds a dense polynomial from term arrays. Terms of equal degree are summed.
+	 *
+	 * @param terms Terms, in any order
+	 * @return Dense polynomial with the same terms
+	 * @throws IllegalArgumentException If there is a term of negative degree
+	 */
+	static DensePolynomial of(TermArrays terms) {
+		int maxDegree = -1;
+		for (int i = 0; i < terms.size; i++) {
+			if (terms.degrees[i] < 0) {
+				throw new IllegalArgumentException("Negative degree " + terms.degrees[i]);
+			}
+			maxDegree = Math.max(maxDegree, terms.degrees[i]);
+		}
+		float[] coeffs = new float[maxDegree + 1];
+		for (int i = 0; i < terms.size; i++) {
+			coeffs[terms.degrees[i]] += terms.coeffs[i];
+		}
+		return new DensePolynomial(coeffs);
+	}
+
+	/**
+	 * Tells whether a polynomial is worth storing densely, that is, whether it has
+	 * no negative degrees and at least MIN_DENSITY of degrees 0..maximum degree present.
+	 *
+	 * @param terms Terms of the polynomial
+	 * @return True if dense storage should be used, false if not
+	 */
+	static boolean isDense(TermArrays terms) {
+		if (terms.size == 0) {
+			return false;
+		}
+		int maxDegree = 0;
+		for (int i = 0; i < terms.size; i++) {
+			if (terms.degrees[i] < 0) {
+				return false;
+			}
+			maxDegree = Math.max(maxDegree, terms.degrees[i]);
+		}
+		return terms.size >= MIN_DENSITY * (maxDegree + 1.0);
+	}
+
+	/**
+	 * Returns the degree of this polynomial.
+	 *
+	 * @return Degree, or -1 for the zero polynomial
+	 */
+	public int degree() {
+		return coeffs.length - 1;
+	}
+
+	/**
+	 * Returns the coefficient of the term of given degree.
+	 *
+	 * @param degree Degree
+	 * @return Coefficient, zero if there is no such term
+	 */
+	public float coeff(int degree) {
+		return degree >= 0 && degree < coeffs.length ? coeffs[degree] : 0;
+	}
+
+	/**
+	 * Builds a new polynomial linked list with the non-zero terms of this polynomial,
+	 * in ascending order of degrees.
+	 *
+	 * @return Front of the new linked list, null for the zero polynomial
+	 */
+	public Node toNode() {
+		Node front = null;
+		for (int degree = coeffs.length - 1; degree >= 0; degree--) {
+			if (coeffs[degree] != 0) {
+				front = new Node(coeffs[degree], degree, front);
+			}
+		}
+		return front;
+	}
+
+	/**
+	 * Copies the non-zero terms of this polynomial, in ascending order of degrees.
+	 */
+	TermArrays toTerms() {
+		TermArrays terms = new TermArrays(coeffs.length);
+		for (int degree = 0; degree < coeffs.length; degree++) {
+			if (coeffs[degree] != 0) {
+				terms.append(coeffs[degree], degree);
+			}
+		}
+		return terms;
+	}
+
+	/**
+	 * Returns the sum of two dense polynomials - DOES NOT change either of the inputs.
+	 *
+	 * @param poly1 First polynomial
+	 * @param poly2 Second polynomial
+	 * @return A new dense polynomial which is the sum of the inputs
+	 */
+	public static DensePolynomial add(DensePolynomial poly1, DensePolynomial poly2) {
+		float[] longer = poly1.coeffs, shorter = poly2.coeffs;
+		if (longer.length < shorter.length) {
+			longer = poly2.coeffs;
+			shorter = poly1.coeffs;
+		}
+		float[] sum = Arrays.copyOf(longer, longer.length);
+		for (int i = 0; i < shorter.length; i++) {
+			sum[i] += shorter[i];
+		}
+		return new DensePolynomial(sum);
+	}
+
+	/**
+	 * Returns the product of two dense polynomials - DOES NOT change either of the inputs.
+	 * Depending on the length of the shorter input, the product is computed term by term,
+	 * by Karatsuba's method, or by FFT (see KARATSUBA_THRESHOLD and FFT_THRESHOLD).
+	 *
+	 * @param poly1 First polynomial
+	 * @param poly2 Second polynomial
+	 * @return A new dense polynomial which is the product of the inputs
+	 */
+	public static DensePolynomial multiply(DensePolynomial poly1, DensePolynomial poly2) {
+		return multiply(poly1, poly2, KARATSUBA_THRESHOLD, FFT_THRESHOLD);
+	}
+
+	/**
+	 * Returns the product of two dense polynomials - DOES NOT change either of the inputs -
+	 * like multiply(DensePolynomial, DensePolynomial), but with the given thresholds in
+	 * place of KARATSUBA_THRESHOLD and FFT_THRESHOLD.
+	 *
+	 * @param poly1 First polynomial
+	 * @param poly2 Second polynomial
+	 * @param karatsubaThreshold Length of the shorter input from which Karatsuba's method
+	 * is used, at least 2
+	 * @param fftThreshold Length of the shorter input from which the FFT is used
+	 * @return A new dense polynomial which is the product of the inputs
+	 * @throws IllegalArgumentException If karatsubaThreshold is less than 2
+	 */
+	public static DensePolynomial multiply(DensePolynomial poly1, DensePolynomial poly2,
+			int karatsubaThreshold, int fftThreshold) {
+		if (karatsubaThreshold < 2) {
+			throw new IllegalArgumentException("Karatsuba threshold " + karatsubaThreshold + " is less than 2");
+		}
+		float[] a = poly1.coeffs, b = poly2.coeffs;
+		if (a.length == 0 || b.length == 0) {
+			return new DensePolynomial(new float[0]);
+		}
+		double[] product = Convolution.multiply(toDouble(a), toDouble(b), karatsubaThreshold, fftThreshold);
+		float[] coeffs = new float[product.length];
+		for (int i = 0; i < product.length; i++) {
+			coeffs[i] = (float) product[i];
+		}
+		return new DensePolynomial(coeffs);
+	}
+
+	private static double[] toDouble(float[] coeffs) {
+		double[] values = new double[coeffs.length];
+		for (int i = 0; i < coeffs.length; i++) {
+			values[i] = coeffs[i];
+		}
+		return values;
+	}
+
+	/**
+	 * Evaluates this polynomial at a given value, by Horner's scheme.
+	 *
+	 * @param x Value at which evaluation is to be done
+	 * @return Value of this polynomial at x
+	 */
+	public float evaluate(float x) {
+		float solution = 0;
+		for (int degree = coeffs.length - 1; degree >= 0; degree--) {
+			solution = solution * x + coeffs[degree];
+		}
+		return solution;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return Polynomial.toString(toNode());
+	}
+}
@@ -0,0 +1,68 @@
+package poly;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class implements a fork-join task that evaluates a polynomial at a range of
+ * points, splitting the range in halves until it is no longer than the split size.
+ * All tasks share one read-only primitive copy of the terms of the polynomial.
+ *
+ * @author runb-cs112
+ *
+ */
+class EvaluateTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Terms of the polynomial, in ascending order of degrees.
+	 */
+	private final TermArrays terms;
+
+	/**
+	 * Points, and array that receives the values at the points.
+	 */
+	private final float[] xs, out;
+
+	/**
+	 * Range of points evaluated by this task, from inclusive, to exclusive.
+	 */
+	private final int from, to;
+
+	/**
+	 * Largest range that is evaluated without splitting.
+	 */
+	private final int splitSize;
+
+	/**
+	 * Initializes this task.
+	 *
+	 * @param terms Terms of the polynomial, ascending degrees
+	 * @param xs Points
+	 * @param out Array that receives the values at the points
+	 * @param from First point, inclusive
+	 * @param to Last point, exclusive
+	 * @param splitSize Largest range evaluated without splitting
+	 */
+	EvaluateTask(TermArrays terms, float[] xs, float[] out, int from, int to, int splitSize) {
+		this.terms = terms;
+		this.xs = xs;
+		this.out = out;
+		this.from = from;
+		this.to = to;
+		this.splitSize = splitSize;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.RecursiveAction#compute()
+	 */
+	protected void compute() {
+		if (to - from <= splitSize) {
+			Polynomial.evaluate(terms, xs, out, from, to);
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		invokeAll(new EvaluateTask(terms, xs, out, from, middle, splitSize),
+				new EvaluateTask(terms, xs, out, middle, to, splitSize));
+	}
+}
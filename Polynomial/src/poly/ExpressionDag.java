@@ -0,0 +1,130 @@
+package poly;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * This class builds lazy polynomial expressions (see PolyExpr) as a directed acyclic graph.
+ * Building the same leaf or the same operation on the same operands twice returns the
+ * same node, so repeated subexpressions are shared, and are evaluated and expanded once.
+ * For example:
+ * <pre>
+ *     ExpressionDag dag = new ExpressionDag();
+ *     PolyExpr p = dag.leaf(poly1), q = dag.leaf(poly2);
+ *     PolyExpr e = dag.product(dag.sum(dag.product(p, q), p), dag.product(p, q));
+ *     float value = e.evaluate(2);     // p*q is evaluated once, nothing is expanded
+ *     Node expanded = e.expand();      // p*q is expanded once
+ * </pre>
+ *
+ * @author runb-cs112
+ *
+ */
+public class ExpressionDag {
+
+	/**
+	 * Leaves, keyed by the front node of their polynomial linked list.
+	 */
+	private final Map<Node, PolyExpr> leaves = new IdentityHashMap<Node, PolyExpr>();
+
+	/**
+	 * Operation nodes, keyed by kind, operands and exponent.
+	 */
+	private final Map<Key, PolyExpr> operations = new HashMap<Key, PolyExpr>();
+
+	/**
+	 * Returns the leaf for a polynomial linked list. The terms are copied, so later changes
+	 * to the list do not affect the expression.
+	 *
+	 * @param poly Polynomial (front of linked list), in ascending order of degrees
+	 * @return Leaf expression for poly
+	 */
+	public PolyExpr leaf(Node poly) {
+		PolyExpr leaf = leaves.get(poly);
+		if (leaf == null) {
+			leaf = new PolyExpr(PolyExpr.LEAF, null, null, 0, TermArrays.of(poly));
+			leaves.put(poly, leaf);
+		}
+		return leaf;
+	}
+
+	/**
+	 * Returns the expression a + b.
+	 *
+	 * @param a First operand
+	 * @param b Second operand
+	 * @return Sum expression
+	 */
+	public PolyExpr sum(PolyExpr a, PolyExpr b) {
+		return operation(PolyExpr.SUM, a, b, 0);
+	}
+
+	/**
+	 * Returns the expression a * b.
+	 *
+	 * @param a First operand
+	 * @param b Second operand
+	 * @return Product expression
+	 */
+	public PolyExpr product(PolyExpr a, PolyExpr b) {
+		return operation(PolyExpr.PRODUCT, a, b, 0);
+	}
+
+	/**
+	 * Returns the expression a^exponent.
+	 *
+	 * @param a Base
+	 * @param exponent Exponent, at least 0
+	 * @return Power expression
+	 * @throws IllegalArgumentException If exponent is negative
+	 */
+	public PolyExpr power(PolyExpr a, int exponent) {
+		if (exponent < 0) {
+			throw new IllegalArgumentException("Negative exponent " + exponent);
+		}
+		return operation(PolyExpr.POWER, a, null, exponent);
+	}
+
+	private PolyExpr operation(int kind, PolyExpr left, PolyExpr right, int exponent) {
+		if (left == null || (kind != PolyExpr.POWER && right == null)) {
+			throw new IllegalArgumentException("Missing operand");
+		}
+		Key key = new Key(kind, left, right, exponent);
+		PolyExpr node = operations.get(key);
+		if (node == null) {
+			node = new PolyExpr(kind, left, right, exponent, null);
+			operations.put(key, node);
+		}
+		return node;
+	}
+
+	/**
+	 * Identity of an operation node: kind, operands (compared by identity) and exponent.
+	 */
+	private static final class Key {
+		final int kind, exponent;
+		final PolyExpr left, right;
+
+		Key(int kind, PolyExpr left, PolyExpr right, int exponent) {
+			this.kind = kind;
+			this.left = left;
+			this.right = right;
+			this.exponent = exponent;
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return kind == other.kind && exponent == other.exponent
+					&& left == other.left && right == other.right;
+		}
+
+		public int hashCode() {
+			int hash = kind * 31 + exponent;
+			hash = hash * 31 + System.identityHashCode(left);
+			return hash * 31 + System.identityHashCode(right);
+		}
+	}
+}
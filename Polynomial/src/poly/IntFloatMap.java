@@ -0,0 +1,205 @@
+package poly;
+
+import java.util.Arrays;
+
+/**
+ * This class implements a hash map from int keys to float values in primitive arrays,
+ * with no boxing. Collisions are resolved by open addressing with linear probing, and
+ * removals shift later entries of the probe run back, so there are no tombstones. The
+ * table is kept at most half full; its capacity is a power of 2 and keys are spread by
+ * Fibonacci hashing.
+ *
+ * @author runb-cs112
+ *
+ */
+final class IntFloatMap {
+
+	private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+	/**
+	 * Keys of used slots.
+	 */
+	private int[] keys;
+
+	/**
+	 * Values of used slots, parallel to keys.
+	 */
+	private float[] values;
+
+	/**
+	 * Whether each slot is in use.
+	 */
+	private boolean[] used;
+
+	/**
+	 * Number of entries.
+	 */
+	private int size;
+
+	/**
+	 * Number of bits of the table index, capacity is 1 << bits.
+	 */
+	private int bits;
+
+	/**
+	 * Initializes an empty map with room for the given number of entries.
+	 *
+	 * @param expected Number of entries expected
+	 */
+	IntFloatMap(int expected) {
+		bits = 2;
+		while ((1 << bits) < 2L * expected) {
+			bits++;
+		}
+		allocate(1 << bits);
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new float[capacity];
+		used = new boolean[capacity];
+	}
+
+	private int slot(int key) {
+		return (key * HASH_MULTIPLIER) >>> (32 - bits);
+	}
+
+	/**
+	 * Returns the slot holding key, or the free slot where it would go.
+	 */
+	private int find(int key) {
+		int mask = keys.length - 1;
+		int i = slot(key);
+		while (used[i] && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	/**
+	 * Returns the number of entries.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the value for key, zero if there is none.
+	 */
+	float get(int key) {
+		int i = find(key);
+		return used[i] ? values[i] : 0;
+	}
+
+	/**
+	 * Adds delta to the value for key, and removes the entry if the value becomes zero.
+	 */
+	void add(int key, float delta) {
+		int i = find(key);
+		if (used[i]) {
+			float value = values[i] + delta;
+			if (value == 0) {
+				remove(i);
+			} else {
+				values[i] = value;
+			}
+		} else if (delta != 0) {
+			insert(i, key, delta);
+		}
+	}
+
+	/**
+	 * Sets the value for key, removing the entry if value is zero.
+	 */
+	void put(int key, float value) {
+		int i = find(key);
+		if (used[i]) {
+			if (value == 0) {
+				remove(i);
+			} else {
+				values[i] = value;
+			}
+		} else if (value != 0) {
+			insert(i, key, value);
+		}
+	}
+
+	private void insert(int i, int key, float value) {
+		keys[i] = key;
+		values[i] = value;
+		used[i] = true;
+		if (++size * 2 > keys.length) {
+			grow();
+		}
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		float[] oldValues = values;
+		boolean[] oldUsed = used;
+		bits++;
+		allocate(1 << bits);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int j = find(oldKeys[i]);
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+				used[j] = true;
+			}
+		}
+	}
+
+	/**
+	 * Empties slot i, and moves back entries of the probe run after it that would no
+	 * longer be found.
+	 */
+	private void remove(int i) {
+		int mask = keys.length - 1;
+		size--;
+		int hole = i;
+		for (int j = (i + 1) & mask; used[j]; j = (j + 1) & mask) {
+			int home = slot(keys[j]);
+			// the entry at j can move to the hole unless its home lies in (hole, j]
+			if (((j - home) & mask) >= ((j - hole) & mask)) {
+				keys[hole] = keys[j];
+				values[hole] = values[j];
+				hole = j;
+			}
+		}
+		used[hole] = false;
+	}
+
+	/**
+	 * Returns the keys in ascending order.
+	 */
+	int[] sortedKeys() {
+		int[] sorted = new int[size];
+		int count = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) {
+				sorted[count++] = keys[i];
+			}
+		}
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	/**
+	 * Returns the number of slots, for iterating with isUsed, keyAt and valueAt.
+	 */
+	int capacity() {
+		return keys.length;
+	}
+
+	boolean isUsed(int slot) {
+		return used[slot];
+	}
+
+	int keyAt(int slot) {
+		return keys[slot];
+	}
+
+	float valueAt(int slot) {
+		return values[slot];
+	}
+}
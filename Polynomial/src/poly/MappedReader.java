@@ -0,0 +1,312 @@
+package poly;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class reads a polynomial text file (see Polynomial.read) by memory-mapping it
+ * and parsing the bytes directly, without a Scanner or a String per line. Files larger
+ * than one chunk are cut at line boundaries and the chunks are parsed in parallel.
+ *
+ * @author runb-cs112
+ *
+ */
+final class MappedReader {
+
+	/**
+	 * Nominal size, in bytes, of the chunks parsed in parallel.
+	 */
+	static final int CHUNK_SIZE = 1 << 22;
+
+	/**
+	 * Exact powers of ten as floats, for the fast path of coefficient parsing.
+	 */
+	private static final float[] POWERS_OF_TEN = {
+		1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+	};
+
+	private MappedReader() {
+	}
+
+	/**
+	 * Reads the terms of a polynomial file, in file order.
+	 *
+	 * @param file File to read
+	 * @return Terms, one per non-blank line, in file order
+	 * @throws IOException If the file cannot be read or a line is malformed
+	 */
+	static TermArrays read(File file)
+	throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			long[] bounds = chunkBounds(channel);
+			int chunks = bounds.length - 1;
+			if (chunks == 1) {
+				return parse(channel, bounds[0], bounds[1]);
+			}
+			List<Callable<TermArrays>> tasks = new ArrayList<Callable<TermArrays>>(chunks);
+			for (int i = 0; i < chunks; i++) {
+				final long start = bounds[i], end = bounds[i + 1];
+				tasks.add(new Callable<TermArrays>() {
+					public TermArrays call() throws IOException {
+						return parse(channel, start, end);
+					}
+				});
+			}
+			List<Future<TermArrays>> parts = ForkJoinPool.commonPool().invokeAll(tasks);
+			TermArrays terms = null;
+			for (Future<TermArrays> part : parts) {
+				TermArrays chunk = get(part);
+				if (terms == null) {
+					terms = new TermArrays(chunk.size * chunks);
+				}
+				for (int i = 0; i < chunk.size; i++) {
+					terms.append(chunk.coeffs[i], chunk.degrees[i]);
+				}
+			}
+			return terms;
+		} finally {
+			raf.close();
+		}
+	}
+
+	private static TermArrays get(Future<TermArrays> part)
+	throws IOException {
+		try {
+			return part.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Cuts the file into chunks of about CHUNK_SIZE bytes, each ending just after a newline
+	 * (or at the end of the file).
+	 */
+	private static long[] chunkBounds(FileChannel channel)
+	throws IOException {
+		long size = channel.size();
+		List<Long> bounds = new ArrayList<Long>();
+		bounds.add(0L);
+		ByteBuffer probe = ByteBuffer.allocate(4096);
+		long start = 0;
+		while (start + CHUNK_SIZE < size) {
+			long position = start + CHUNK_SIZE;
+			long end = size;
+			search:
+			while (position < size) {
+				probe.clear();
+				int read = channel.read(probe, position);
+				if (read <= 0) {
+					break;
+				}
+				for (int i = 0; i < read; i++) {
+					if (probe.get(i) == '\n') {
+						end = position + i + 1;
+						break search;
+					}
+				}
+				position += read;
+			}
+			bounds.add(end);
+			start = end;
+		}
+		if (start < size || size == 0) {
+			bounds.add(size);
+		}
+		long[] result = new long[bounds.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Parses the lines in bytes [start,end) of the file. Blank lines are skipped, and
+	 * anything after the degree on a line is ignored, as with read(Scanner).
+	 */
+	static TermArrays parse(FileChannel channel, long start, long end)
+	throws IOException {
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+		TermArrays terms = new TermArrays((int) ((end - start) / 8));
+		int limit = buffer.limit();
+		int position = 0;
+		while (position < limit) {
+			position = skipBlanks(buffer, position, limit);
+			if (position == limit) {
+				break;
+			}
+			if (buffer.get(position) == '\n') {
+				position++;
+				continue;
+			}
+			int coeffEnd = tokenEnd(buffer, position, limit);
+			float coeff = parseFloat(buffer, position, coeffEnd, start);
+			position = skipBlanks(buffer, coeffEnd, limit);
+			int degreeEnd = tokenEnd(buffer, position, limit);
+			int degree = parseInt(buffer, position, degreeEnd, start);
+			terms.append(coeff, degree);
+			position = degreeEnd;
+			while (position < limit && buffer.get(position) != '\n') {
+				position++;
+			}
+		}
+		return terms;
+	}
+
+	private static boolean isBlank(byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+	}
+
+	private static int skipBlanks(ByteBuffer buffer, int position, int limit) {
+		while (position < limit && isBlank(buffer.get(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	private static int tokenEnd(ByteBuffer buffer, int position, int limit) {
+		while (position < limit) {
+			byte b = buffer.get(position);
+			if (b == '\n' || isBlank(b)) {
+				break;
+			}
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 * Parses a coefficient. Decimal numbers of at most 7 significant digits with a decimal
+	 * exponent of at most 10 in magnitude are converted exactly with one float operation;
+	 * anything else goes through Float.parseFloat, so the result is always the float
+	 * nearest to the decimal value, as with Scanner.nextFloat.
+	 */
+	private static float parseFloat(ByteBuffer buffer, int from, int to, long base)
+	throws IOException {
+		if (from == to) {
+			throw new IOException("Missing coefficient at byte " + (base + from));
+		}
+		int i = from;
+		boolean negative = false;
+		byte b = buffer.get(i);
+		if (b == '-' || b == '+') {
+			negative = b == '-';
+			i++;
+		}
+		int mantissa = 0, digits = 0, significant = 0, exponent = 0;
+		boolean point = false, fast = true;
+		for (; i < to; i++) {
+			b = buffer.get(i);
+			if (b >= '0' && b <= '9') {
+				digits++;
+				if (significant > 0 || b != '0') {
+					significant++;
+					mantissa = significant <= 7 ? mantissa * 10 + (b - '0') : mantissa;
+				}
+				if (point) {
+					exponent--;
+				}
+			} else if (b == '.' && !point) {
+				point = true;
+			} else {
+				break;
+			}
+		}
+		if (i < to && (buffer.get(i) == 'e' || buffer.get(i) == 'E') && digits > 0) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+				negativeExponent = buffer.get(i) == '-';
+				i++;
+			}
+			int value = 0, exponentDigits = 0;
+			for (; i < to && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++) {
+				value = Math.min(value * 10 + (buffer.get(i) - '0'), 1000);
+				exponentDigits++;
+			}
+			fast = exponentDigits > 0;
+			exponent += negativeExponent ? -value : value;
+		}
+		if (fast && i == to && digits > 0 && significant <= 7) {
+			float value;
+			if (mantissa == 0) {
+				value = 0;
+			} else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+				value = mantissa * POWERS_OF_TEN[exponent];
+			} else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+				value = mantissa / POWERS_OF_TEN[-exponent];
+			} else {
+				return slowFloat(buffer, from, to, base);
+			}
+			return negative ? -value : value;
+		}
+		return slowFloat(buffer, from, to, base);
+	}
+
+	private static float slowFloat(ByteBuffer buffer, int from, int to, long base)
+	throws IOException {
+		String token = token(buffer, from, to);
+		try {
+			return Float.parseFloat(token);
+		} catch (NumberFormatException e) {
+			throw new IOException("Malformed coefficient '" + token + "' at byte " + (base + from));
+		}
+	}
+
+	private static int parseInt(ByteBuffer buffer, int from, int to, long base)
+	throws IOException {
+		if (from == to) {
+			throw new IOException("Missing degree at byte " + (base + from));
+		}
+		int i = from;
+		boolean negative = false;
+		byte b = buffer.get(i);
+		if (b == '-' || b == '+') {
+			negative = b == '-';
+			i++;
+		}
+		long value = 0;
+		if (i == to) {
+			throw new IOException("Malformed degree '" + token(buffer, from, to) + "' at byte " + (base + from));
+		}
+		for (; i < to; i++) {
+			b = buffer.get(i);
+			if (b < '0' || b > '9' || value > Integer.MAX_VALUE + 1L) {
+				throw new IOException("Malformed degree '" + token(buffer, from, to) + "' at byte " + (base + from));
+			}
+			value = value * 10 + (b - '0');
+		}
+		value = negative ? -value : value;
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			throw new IOException("Degree '" + token(buffer, from, to) + "' out of range at byte " + (base + from));
+		}
+		return (int) value;
+	}
+
+	private static String token(ByteBuffer buffer, int from, int to) {
+		byte[] bytes = new byte[to - from];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(from + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
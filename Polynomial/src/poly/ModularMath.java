@@ -0,0 +1,171 @@
+package poly;
+
+import java.util.Arrays;
+
+/**
+ * This class implements arithmetic on dense polynomials with coefficients modulo m, given
+ * as long arrays indexed by degree with entries in [0,m): fast multiplication (through
+ * NumberTheoreticTransform), power series inversion by Newton iteration, and division with
+ * remainder built on them. Division needs the leading coefficient of the divisor to be
+ * invertible modulo m, which always holds when m is prime.
+ *
+ * @author runb-cs112
+ *
+ */
+final class ModularMath {
+
+	/**
+	 * Quotient length or divisor degree below which division is done term by term.
+	 */
+	static final int DIVISION_THRESHOLD = 64;
+
+	private ModularMath() {
+	}
+
+	/**
+	 * Returns the degree of a coefficient array, ignoring trailing zeros.
+	 *
+	 * @return Degree, or -1 if all coefficients are zero
+	 */
+	static int degree(long[] a) {
+		int degree = a.length - 1;
+		while (degree >= 0 && a[degree] == 0) {
+			degree--;
+		}
+		return degree;
+	}
+
+	/**
+	 * Returns a copy of a without trailing zeros.
+	 */
+	static long[] trim(long[] a) {
+		return Arrays.copyOf(a, degree(a) + 1);
+	}
+
+	/**
+	 * Multiplies two coefficient arrays modulo m; either may be empty.
+	 */
+	static long[] multiply(long[] a, long[] b, long m) {
+		if (a.length == 0 || b.length == 0) {
+			return new long[0];
+		}
+		return NumberTheoreticTransform.multiply(a, b, m);
+	}
+
+	/**
+	 * Computes the power series inverse of a modulo x^n and m, by Newton iteration
+	 * g = g*(2 - a*g), doubling the precision at each step.
+	 *
+	 * @param a Series with a[0] invertible modulo m
+	 * @param n Number of coefficients wanted
+	 * @param m Modulus
+	 * @return g with a*g = 1 modulo x^n
+	 */
+	static long[] inverse(long[] a, int n, long m) {
+		long[] g = { NumberTheoreticTransform.inverse(a[0], m) };
+		int length = 1;
+		while (length < n) {
+			length = Math.min(2 * length, n);
+			long[] error = Arrays.copyOf(multiply(Arrays.copyOf(a, Math.min(a.length, length)), g, m), length);
+			for (int i = 0; i < length; i++) {
+				error[i] = error[i] == 0 ? 0 : m - error[i];
+			}
+			error[0] = (error[0] + 2) % m;
+			g = Arrays.copyOf(multiply(g, error, m), length);
+		}
+		return g;
+	}
+
+	/**
+	 * Divides a by b modulo m. Large divisions compute the reversed quotient as the reversed
+	 * dividend times the power series inverse of the reversed divisor; small ones are done
+	 * term by term.
+	 *
+	 * @param a Dividend
+	 * @param b Divisor, not zero, with invertible leading coefficient
+	 * @param m Modulus
+	 * @return { quotient, remainder }, remainder of degree less than that of b
+	 * @throws ArithmeticException If b is zero or its leading coefficient is not invertible
+	 */
+	static long[][] divide(long[] a, long[] b, long m) {
+		int n = degree(a), d = degree(b);
+		if (d < 0) {
+			throw new ArithmeticException("Division by the zero polynomial");
+		}
+		if (n < d) {
+			return new long[][] { new long[0], trim(a) };
+		}
+		int length = n - d + 1;
+		if (d < DIVISION_THRESHOLD || length < DIVISION_THRESHOLD) {
+			return schoolbookDivide(a, n, b, d, m);
+		}
+		long[] reversedA = new long[length];
+		for (int i = 0; i < length; i++) {
+			reversedA[i] = a[n - i];
+		}
+		long[] reversedB = new long[Math.min(d + 1, length)];
+		for (int i = 0; i < reversedB.length; i++) {
+			reversedB[i] = b[d - i];
+		}
+		long[] reversedQ = Arrays.copyOf(multiply(reversedA, inverse(reversedB, length, m), m), length);
+		long[] quotient = new long[length];
+		for (int i = 0; i < length; i++) {
+			quotient[i] = reversedQ[length - 1 - i];
+		}
+		long[] product = multiply(Arrays.copyOf(b, d + 1), quotient, m);
+		long[] remainder = new long[d];
+		for (int i = 0; i < d; i++) {
+			remainder[i] = (a[i] - product[i] + m) % m;
+		}
+		return new long[][] { quotient, trim(remainder) };
+	}
+
+	static long[][] schoolbookDivide(long[] a, int n, long[] b, int d, long m) {
+		long[] remainder = Arrays.copyOf(a, n + 1);
+		long[] quotient = new long[n - d + 1];
+		long inverseLead = NumberTheoreticTransform.inverse(b[d], m);
+		for (int i = n - d; i >= 0; i--) {
+			long coeff = remainder[i + d] * inverseLead % m;
+			quotient[i] = coeff;
+			remainder[i + d] = 0;
+			if (coeff != 0) {
+				for (int j = 0; j < d; j++) {
+					remainder[i + j] = (remainder[i + j] + (m - coeff) * b[j]) % m;
+				}
+			}
+		}
+		return new long[][] { quotient, trim(Arrays.copyOf(remainder, d)) };
+	}
+
+	/**
+	 * Returns the remainder of a divided by b modulo m.
+	 */
+	static long[] remainder(long[] a, long[] b, long m) {
+		return divide(a, b, m)[1];
+	}
+
+	/**
+	 * Returns the derivative of a modulo m.
+	 */
+	static long[] derivative(long[] a, long m) {
+		if (a.length <= 1) {
+			return new long[0];
+		}
+		long[] derivative = new long[a.length - 1];
+		for (int i = 1; i < a.length; i++) {
+			derivative[i - 1] = i % m * a[i] % m;
+		}
+		return derivative;
+	}
+
+	/**
+	 * Evaluates a at x modulo m by Horner's scheme, x in [0,m).
+	 */
+	static long evaluate(long[] a, long x, long m) {
+		long value = 0;
+		for (int i = a.length - 1; i >= 0; i--) {
+			value = (value * x + a[i]) % m;
+		}
+		return value;
+	}
+}
@@ -0,0 +1,268 @@
+package poly;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Scanner;
+
+/**
+ * This class implements exact polynomial arithmetic with integer coefficients modulo
+ * a modulus m (normally a prime), with 2 <= m < 2^31. Coefficients are stored densely,
+ * indexed by degree, in [0,m). Products are computed with number-theoretic transforms,
+ * so they are exact however large the operands are, unlike the float coefficients of Term.
+ *
+ * @author runb-cs112
+ *
+ */
+public class ModularPolynomial {
+
+	/**
+	 * Largest supported modulus.
+	 */
+	public static final long MAX_MODULUS = Integer.MAX_VALUE;
+
+	/**
+	 * Modulus of all coefficients.
+	 */
+	final long modulus;
+
+	/**
+	 * Coefficients in [0,modulus), indexed by degree. The last entry, if any, is non-zero.
+	 */
+	long[] coeffs;
+
+	/**
+	 * Initializes this polynomial with the given coefficients, indexed by degree. The
+	 * coefficients are reduced modulo m into a new array.
+	 *
+	 * @param coeffs Coefficients, coeffs[i] is the coefficient of x^i
+	 * @param modulus Modulus m, 2 <= m <= MAX_MODULUS
+	 * @throws IllegalArgumentException If the modulus is out of range
+	 */
+	public ModularPolynomial(long[] coeffs, long modulus) {
+		this(checkModulus(modulus), reduce(coeffs, modulus));
+	}
+
+	private ModularPolynomial(long modulus, long[] reduced) {
+		int length = reduced.length;
+		while (length > 0 && reduced[length - 1] == 0) {
+			length--;
+		}
+		this.coeffs = length == reduced.length ? reduced : Arrays.copyOf(reduced, length);
+		this.modulus = modulus;
+	}
+
+	private static long checkModulus(long modulus) {
+		if (modulus < 2 || modulus > MAX_MODULUS) {
+			throw new IllegalArgumentException("Modulus " + modulus + " is not in [2," + MAX_MODULUS + "]");
+		}
+		return modulus;
+	}
+
+	private static long[] reduce(long[] coeffs, long m) {
+		long[] reduced = new long[coeffs.length];
+		for (int i = 0; i < coeffs.length; i++) {
+			reduced[i] = mod(coeffs[i], m);
+		}
+		return reduced;
+	}
+
+	private static long mod(long value, long m) {
+		value %= m;
+		return value < 0 ? value + m : value;
+	}
+
+	/**
+	 * Reads a polynomial with integer coefficients, in the same storage format as
+	 * Polynomial.read, reducing each coefficient modulo m. Degrees may come in any order,
+	 * terms of equal degree are summed.
+	 *
+	 * @param sc Scanner from which a polynomial is to be read
+	 * @param modulus Modulus m, 2 <= m <= MAX_MODULUS
+	 * @throws IOException If there is any input error in reading the polynomial
+	 * @return The polynomial read, modulo m
+	 */
+	public static ModularPolynomial read(Scanner sc, long modulus)
+	throws IOException {
+		checkModulus(modulus);
+		long[] coeffs = new long[16];
+		while (sc.hasNext()) {
+			long coeff = mod(sc.nextLong(), modulus);
+			int degree = sc.nextInt();
+			if (degree < 0) {
+				throw new IOException("Negative degree " + degree);
+			}
+			if (degree >= coeffs.length) {
+				coeffs = Arrays.copyOf(coeffs, Math.max(degree + 1, 2 * coeffs.length));
+			}
+			coeffs[degree] = (coeffs[degree] + coeff) % modulus;
+		}
+		return new ModularPolynomial(modulus, coeffs);
+	}
+
+	/**
+	 * Builds a modular polynomial from a polynomial linked list. Each coefficient is
+	 * rounded to the nearest integer and reduced modulo m.
+	 *
+	 * @param poly Polynomial (front of linked list)
+	 * @param modulus Modulus m, 2 <= m <= MAX_MODULUS
+	 * @return The polynomial, modulo m
+	 * @throws IllegalArgumentException If poly has a term of negative degree
+	 */
+	public static ModularPolynomial fromNode(Node poly, long modulus) {
+		checkModulus(modulus);
+		TermArrays terms = TermArrays.of(poly);
+		int maxDegree = -1;
+		for (int i = 0; i < terms.size; i++) {
+			if (terms.degrees[i] < 0) {
+				throw new IllegalArgumentException("Negative degree " + terms.degrees[i]);
+			}
+			maxDegree = Math.max(maxDegree, terms.degrees[i]);
+		}
+		long[] coeffs = new long[maxDegree + 1];
+		for (int i = 0; i < terms.size; i++) {
+			int degree = terms.degrees[i];
+			coeffs[degree] = (coeffs[degree] + mod(Math.round((double) terms.coeffs[i]), modulus)) % modulus;
+		}
+		return new ModularPolynomial(modulus, coeffs);
+	}
+
+	/**
+	 * Builds a new polynomial linked list with the non-zero terms of this polynomial, in
+	 * ascending order of degrees. Coefficients are written in the symmetric range
+	 * (-m/2,m/2], and are exact as floats only when they are at most 2^24 in magnitude.
+	 *
+	 * @return Front of the new linked list, null for the zero polynomial
+	 */
+	public Node toNode() {
+		Node front = null;
+		for (int degree = coeffs.length - 1; degree >= 0; degree--) {
+			if (coeffs[degree] != 0) {
+				front = new Node(symmetric(coeffs[degree]), degree, front);
+			}
+		}
+		return front;
+	}
+
+	private long symmetric(long coeff) {
+		return coeff > modulus / 2 ? coeff - modulus : coeff;
+	}
+
+	/**
+	 * Returns the modulus of this polynomial.
+	 *
+	 * @return Modulus
+	 */
+	public long modulus() {
+		return modulus;
+	}
+
+	/**
+	 * Returns the degree of this polynomial.
+	 *
+	 * @return Degree, or -1 for the zero polynomial
+	 */
+	public int degree() {
+		return coeffs.length - 1;
+	}
+
+	/**
+	 * Returns the coefficient of the term of given degree.
+	 *
+	 * @param degree Degree
+	 * @return Coefficient in [0,m), zero if there is no such term
+	 */
+	public long coeff(int degree) {
+		return degree >= 0 && degree < coeffs.length ? coeffs[degree] : 0;
+	}
+
+	/**
+	 * Returns the sum of two polynomials with the same modulus - DOES NOT change either
+	 * of the inputs.
+	 *
+	 * @param poly1 First polynomial
+	 * @param poly2 Second polynomial
+	 * @return A new polynomial which is the sum of the inputs
+	 * @throws IllegalArgumentException If the moduli differ
+	 */
+	public static ModularPolynomial add(ModularPolynomial poly1, ModularPolynomial poly2) {
+		long m = sameModulus(poly1, poly2);
+		long[] longer = poly1.coeffs, shorter = poly2.coeffs;
+		if (longer.length < shorter.length) {
+			longer = poly2.coeffs;
+			shorter = poly1.coeffs;
+		}
+		long[] sum = Arrays.copyOf(longer, longer.length);
+		for (int i = 0; i < shorter.length; i++) {
+			sum[i] += shorter[i];
+			if (sum[i] >= m) {
+				sum[i] -= m;
+			}
+		}
+		return new ModularPolynomial(m, sum);
+	}
+
+	/**
+	 * Returns the product of two polynomials with the same modulus - DOES NOT change
+	 * either of the inputs. Products of length up to 2^23 are computed with
+	 * number-theoretic transforms, small products term by term.
+	 *
+	 * @param poly1 First polynomial
+	 * @param poly2 Second polynomial
+	 * @return A new polynomial which is the product of the inputs
+	 * @throws IllegalArgumentException If the moduli differ, or the product is too long
+	 */
+	public static ModularPolynomial multiply(ModularPolynomial poly1, ModularPolynomial poly2) {
+		long m = sameModulus(poly1, poly2);
+		if (poly1.coeffs.length == 0 || poly2.coeffs.length == 0) {
+			return new ModularPolynomial(m, new long[0]);
+		}
+		return new ModularPolynomial(m, NumberTheoreticTransform.multiply(poly1.coeffs, poly2.coeffs, m));
+	}
+
+	private static long sameModulus(ModularPolynomial poly1, ModularPolynomial poly2) {
+		if (poly1.modulus != poly2.modulus) {
+			throw new IllegalArgumentException("Moduli " + poly1.modulus + " and " + poly2.modulus + " differ");
+		}
+		return poly1.modulus;
+	}
+
+	/**
+	 * Evaluates this polynomial at a given value, by Horner's scheme modulo m.
+	 *
+	 * @param x Value at which evaluation is to be done
+	 * @return Value of this polynomial at x, in [0,m)
+	 */
+	public long evaluate(long x) {
+		x = mod(x, modulus);
+		long solution = 0;
+		for (int degree = coeffs.length - 1; degree >= 0; degree--) {
+			solution = (solution * x + coeffs[degree]) % modulus;
+		}
+		return solution;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		if (coeffs.length == 0) {
+			return "0 (mod " + modulus + ")";
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int degree = coeffs.length - 1; degree >= 0; degree--) {
+			if (coeffs[degree] == 0) {
+				continue;
+			}
+			if (sb.length() > 0) {
+				sb.append(" + ");
+			}
+			sb.append(coeffs[degree]);
+			if (degree == 1) {
+				sb.append('x');
+			} else if (degree > 1) {
+				sb.append("x^").append(degree);
+			}
+		}
+		return sb.append(" (mod ").append(modulus).append(')').toString();
+	}
+}
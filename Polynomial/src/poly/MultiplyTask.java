@@ -0,0 +1,205 @@
+package poly;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class implements a fork-join task that multiplies a block of terms of one
+ * polynomial by the whole of another. Blocks are split in halves until they have at most
+ * blockSize terms. Each leaf computes its partial product in a private accumulator, in
+ * double: a dense leaf by Karatsuba's method over a coefficient array spanning the
+ * degrees of the block, a sparse one by merging its rows of partial products with a
+ * min-heap, as Polynomial.multiplySparse does. Leaves do not use the FFT, whose rounding
+ * errors would make integer products inexact; blocks run in parallel instead. The partial
+ * products of the two halves of a block are then merged by degree, still in double, so
+ * coefficients are rounded to float once.
+ *
+ * @author runb-cs112
+ *
+ */
+class MultiplyTask extends RecursiveTask<MultiplyTask.Partial> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Outer operand, split into blocks, and inner operand, in ascending order of degrees.
+	 */
+	private final TermArrays outer, inner;
+
+	/**
+	 * Range of terms of the outer operand multiplied by this task, from inclusive, to exclusive.
+	 */
+	private final int from, to;
+
+	/**
+	 * Largest number of outer terms multiplied without splitting.
+	 */
+	private final int blockSize;
+
+	/**
+	 * Initializes this task.
+	 *
+	 * @param outer Outer operand, ascending degrees
+	 * @param inner Inner operand, ascending degrees, not empty
+	 * @param from First outer term, inclusive
+	 * @param to Last outer term, exclusive
+	 * @param blockSize Largest number of outer terms multiplied without splitting
+	 */
+	MultiplyTask(TermArrays outer, TermArrays inner, int from, int to, int blockSize) {
+		this.outer = outer;
+		this.inner = inner;
+		this.from = from;
+		this.to = to;
+		this.blockSize = blockSize;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.RecursiveTask#compute()
+	 */
+	protected Partial compute() {
+		if (to - from <= blockSize) {
+			return isDense() ? multiplyDense() : multiplySparse();
+		}
+		int middle = (from + to) >>> 1;
+		MultiplyTask left = new MultiplyTask(outer, inner, from, middle, blockSize);
+		left.fork();
+		Partial right = new MultiplyTask(outer, inner, middle, to, blockSize).compute();
+		return Partial.add(left.join(), right);
+	}
+
+	/**
+	 * Returns true if both the block and the inner operand fill at least MIN_DENSITY of
+	 * the degrees they span.
+	 */
+	private boolean isDense() {
+		long blockSpan = (long) outer.degrees[to - 1] - outer.degrees[from] + 1;
+		long innerSpan = (long) inner.degrees[inner.size - 1] - inner.degrees[0] + 1;
+		return to - from >= DensePolynomial.MIN_DENSITY * blockSpan
+				&& inner.size >= DensePolynomial.MIN_DENSITY * innerSpan;
+	}
+
+	/**
+	 * Multiplies the block by the inner operand by Karatsuba's method.
+	 *
+	 * @throws ArithmeticException If a degree of the product overflows an int, as in
+	 * multiplySparse
+	 */
+	private Partial multiplyDense() {
+		int outerLow = outer.degrees[from], innerLow = inner.degrees[0];
+		double[] a = new double[outer.degrees[to - 1] - outerLow + 1];
+		for (int i = from; i < to; i++) {
+			a[outer.degrees[i] - outerLow] += outer.coeffs[i];
+		}
+		double[] b = new double[inner.degrees[inner.size - 1] - innerLow + 1];
+		for (int i = 0; i < inner.size; i++) {
+			b[inner.degrees[i] - innerLow] += inner.coeffs[i];
+		}
+		int low = Math.addExact(outerLow, innerLow);
+		Math.addExact(low, a.length + b.length - 2); // highest degree of the product
+		double[] product = Convolution.karatsuba(a, b);
+		Partial partial = new Partial(product.length);
+		for (int i = 0; i < product.length; i++) {
+			if (product[i] != 0) {
+				partial.append(product[i], low + i);
+			}
+		}
+		return partial;
+	}
+
+	private Partial multiplySparse() {
+		int rows = to - from;
+		int[] heap = new int[rows];
+		int[] key = new int[rows];
+		int[] cursor = new int[rows];
+		for (int row = 0; row < rows; row++) {
+			heap[row] = row;
+			key[row] = Math.addExact(outer.degrees[from + row], inner.degrees[0]);
+		}
+		for (int i = rows / 2 - 1; i >= 0; i--) {
+			Polynomial.siftDown(heap, key, rows, i);
+		}
+		Partial partial = new Partial(rows + inner.size);
+		int heapSize = rows;
+		while (heapSize > 0) {
+			int degree = key[heap[0]];
+			double coeff = 0;
+			while (heapSize > 0 && key[heap[0]] == degree) {
+				int row = heap[0];
+				coeff += (double) outer.coeffs[from + row] * inner.coeffs[cursor[row]];
+				if (++cursor[row] < inner.size) {
+					key[row] = Math.addExact(outer.degrees[from + row], inner.degrees[cursor[row]]);
+				} else {
+					heap[0] = heap[--heapSize];
+				}
+				Polynomial.siftDown(heap, key, heapSize, 0);
+			}
+			if (coeff != 0) {
+				partial.append(coeff, degree);
+			}
+		}
+		return partial;
+	}
+
+	/**
+	 * A partial product: terms in ascending order of degrees, with double coefficients.
+	 */
+	static final class Partial {
+		int[] degrees;
+		double[] coeffs;
+		int size;
+
+		Partial(int capacity) {
+			capacity = Math.max(capacity, 1);
+			degrees = new int[capacity];
+			coeffs = new double[capacity];
+		}
+
+		void append(double coeff, int degree) {
+			if (size == degrees.length) {
+				degrees = Arrays.copyOf(degrees, 2 * size);
+				coeffs = Arrays.copyOf(coeffs, 2 * size);
+			}
+			degrees[size] = degree;
+			coeffs[size] = coeff;
+			size++;
+		}
+
+		/**
+		 * Merges two partial products by degree, summing coefficients of equal degree.
+		 */
+		static Partial add(Partial a, Partial b) {
+			Partial sum = new Partial(a.size + b.size);
+			int i = 0, j = 0;
+			while (i < a.size || j < b.size) {
+				if (j == b.size || (i < a.size && a.degrees[i] < b.degrees[j])) {
+					sum.append(a.coeffs[i], a.degrees[i]);
+					i++;
+				} else if (i == a.size || b.degrees[j] < a.degrees[i]) {
+					sum.append(b.coeffs[j], b.degrees[j]);
+					j++;
+				} else {
+					double coeff = a.coeffs[i] + b.coeffs[j];
+					if (coeff != 0) {
+						sum.append(coeff, a.degrees[i]);
+					}
+					i++;
+					j++;
+				}
+			}
+			return sum;
+		}
+
+		/**
+		 * Rounds the coefficients to float, dropping terms that round to zero.
+		 */
+		TermArrays toTerms() {
+			TermArrays terms = new TermArrays(size);
+			for (int i = 0; i < size; i++) {
+				if ((float) coeffs[i] != 0) {
+					terms.append((float) coeffs[i], degrees[i]);
+				}
+			}
+			return terms;
+		}
+	}
+}
@@ -0,0 +1,378 @@
+package poly;
+
+import java.util.Arrays;
+
+/**
+ * This class implements a sparse polynomial in several variables x1, ..., xn, with
+ * 1 <= n <= MAX_VARIABLES. The exponents of each monomial are packed into one long key:
+ * the 64 bits are cut into n fields of 64/n bits (at most 32), x1 in the most significant
+ * field, and the top bit of each field is a guard bit that is always zero. So
+ * <ul>
+ * <li>comparing keys as longs orders monomials lexicographically (x1 first), in one
+ *     compare;</li>
+ * <li>the key of a product of monomials is the sum of their keys, and an exponent that
+ *     overflows its field sets its guard bit, which is detected with one mask.</li>
+ * </ul>
+ * Terms are kept in two parallel arrays, keys and coefficients, in ascending order of
+ * keys, with no zero coefficients. Sums merge the arrays; products merge the rows of
+ * partial products with a min-heap of keys, as Polynomial.multiply does for one variable,
+ * accumulating in double. Polynomials are immutable.
+ *
+ * @author runb-cs112
+ *
+ */
+public class MultivariatePolynomial {
+
+	/**
+	 * Largest number of variables. With 8 variables each exponent has 7 bits.
+	 */
+	public static final int MAX_VARIABLES = 8;
+
+	/**
+	 * Number of variables.
+	 */
+	private final int variables;
+
+	/**
+	 * Width in bits of the field of each variable, including its guard bit.
+	 */
+	private final int width;
+
+	/**
+	 * Mask of the guard bits of all fields.
+	 */
+	private final long guards;
+
+	/**
+	 * Packed exponents of terms, in ascending order.
+	 */
+	private final long[] keys;
+
+	/**
+	 * Coefficients of terms, parallel to keys, none zero.
+	 */
+	private final float[] coeffs;
+
+	/**
+	 * Initializes this polynomial with the given terms. Terms with equal exponents are
+	 * summed, and terms whose coefficient is zero are dropped.
+	 *
+	 * @param variables Number of variables n, 1 <= n <= MAX_VARIABLES
+	 * @param coeffs Coefficients of terms
+	 * @param exponents Exponents of terms, exponents[i] has n entries for term i
+	 * @throws IllegalArgumentException If n is out of range, the arrays have different
+	 * lengths, or an exponent is negative or larger than maxExponent
+	 */
+	public MultivariatePolynomial(int variables, float[] coeffs, int[][] exponents) {
+		if (variables < 1 || variables > MAX_VARIABLES) {
+			throw new IllegalArgumentException("Number of variables " + variables
+					+ " is not in [1," + MAX_VARIABLES + "]");
+		}
+		if (coeffs.length != exponents.length) {
+			throw new IllegalArgumentException(coeffs.length + " coefficients for " + exponents.length + " terms");
+		}
+		this.variables = variables;
+		this.width = Math.min(32, 64 / variables);
+		long guards = 0;
+		for (int v = 0; v < variables; v++) {
+			guards |= 1L << shift(v) + width - 1;
+		}
+		this.guards = guards;
+		long[] packed = new long[coeffs.length];
+		for (int i = 0; i < coeffs.length; i++) {
+			packed[i] = pack(exponents[i]);
+		}
+		long[] sorted = packed.clone();
+		Arrays.sort(sorted);
+		int distinct = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (i == 0 || sorted[i] != sorted[i - 1]) {
+				sorted[distinct++] = sorted[i];
+			}
+		}
+		double[] sums = new double[distinct];
+		for (int i = 0; i < coeffs.length; i++) {
+			sums[Arrays.binarySearch(sorted, 0, distinct, packed[i])] += coeffs[i];
+		}
+		Terms terms = new Terms(distinct);
+		for (int i = 0; i < distinct; i++) {
+			terms.append((float) sums[i], sorted[i]);
+		}
+		this.keys = Arrays.copyOf(terms.keys, terms.size);
+		this.coeffs = Arrays.copyOf(terms.coeffs, terms.size);
+	}
+
+	private MultivariatePolynomial(MultivariatePolynomial like, Terms terms) {
+		this.variables = like.variables;
+		this.width = like.width;
+		this.guards = like.guards;
+		this.keys = Arrays.copyOf(terms.keys, terms.size);
+		this.coeffs = Arrays.copyOf(terms.coeffs, terms.size);
+	}
+
+	/**
+	 * Returns the bit position of the field of a variable.
+	 */
+	private int shift(int variable) {
+		return (variables - 1 - variable) * width;
+	}
+
+	private long pack(int[] exponents) {
+		if (exponents.length != variables) {
+			throw new IllegalArgumentException(exponents.length + " exponents for " + variables + " variables");
+		}
+		long key = 0;
+		for (int v = 0; v < variables; v++) {
+			if (exponents[v] < 0 || exponents[v] > maxExponent()) {
+				throw new IllegalArgumentException("Exponent " + exponents[v] + " is not in [0," + maxExponent() + "]");
+			}
+			key |= (long) exponents[v] << shift(v);
+		}
+		return key;
+	}
+
+	/**
+	 * Returns the number of variables.
+	 *
+	 * @return Number of variables n
+	 */
+	public int variables() {
+		return variables;
+	}
+
+	/**
+	 * Returns the largest exponent a variable can have, 2^(w - 1) - 1 for fields of w bits.
+	 *
+	 * @return Largest exponent
+	 */
+	public int maxExponent() {
+		return (int) ((1L << width - 1) - 1);
+	}
+
+	/**
+	 * Returns the number of terms.
+	 *
+	 * @return Number of terms
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Returns the coefficient of a term.
+	 *
+	 * @param term Index of term, terms being in ascending lexicographic order of exponents
+	 * @return Coefficient
+	 */
+	public float coeff(int term) {
+		return coeffs[term];
+	}
+
+	/**
+	 * Returns the exponent of a variable in a term.
+	 *
+	 * @param term Index of term
+	 * @param variable Index of variable, 0 for x1
+	 * @return Exponent
+	 */
+	public int exponent(int term, int variable) {
+		return exponent(keys[term], variable);
+	}
+
+	private int exponent(long key, int variable) {
+		return (int) (key >>> shift(variable) & (1L << width - 1) - 1);
+	}
+
+	/**
+	 * Returns the sum of two polynomials in the same variables - DOES NOT change either of
+	 * the inputs.
+	 *
+	 * @param poly1 First polynomial
+	 * @param poly2 Second polynomial
+	 * @return A new polynomial which is the sum of the inputs
+	 * @throws IllegalArgumentException If the numbers of variables differ
+	 */
+	public static MultivariatePolynomial add(MultivariatePolynomial poly1, MultivariatePolynomial poly2) {
+		sameVariables(poly1, poly2);
+		long[] a = poly1.keys, b = poly2.keys;
+		Terms sum = new Terms(a.length + b.length);
+		int i = 0, j = 0;
+		while (i < a.length || j < b.length) {
+			if (j == b.length || (i < a.length && a[i] < b[j])) {
+				sum.append(poly1.coeffs[i], a[i]);
+				i++;
+			} else if (i == a.length || b[j] < a[i]) {
+				sum.append(poly2.coeffs[j], b[j]);
+				j++;
+			} else {
+				sum.append(poly1.coeffs[i] + poly2.coeffs[j], a[i]);
+				i++;
+				j++;
+			}
+		}
+		return new MultivariatePolynomial(poly1, sum);
+	}
+
+	/**
+	 * Returns the product of two polynomials in the same variables - DOES NOT change either
+	 * of the inputs. Each term of the shorter operand times the whole longer operand is a
+	 * row of partial products, in ascending order since adding keys preserves their
+	 * order. The rows are merged with a min-heap keyed on packed exponents, and products
+	 * of equal exponents are summed in double.
+	 *
+	 * @param poly1 First polynomial
+	 * @param poly2 Second polynomial
+	 * @return A new polynomial which is the product of the inputs
+	 * @throws IllegalArgumentException If the numbers of variables differ
+	 * @throws ArithmeticException If an exponent of the product exceeds maxExponent
+	 */
+	public static MultivariatePolynomial multiply(MultivariatePolynomial poly1, MultivariatePolynomial poly2) {
+		sameVariables(poly1, poly2);
+		if (poly1.size() > poly2.size()) {
+			MultivariatePolynomial swap = poly1;
+			poly1 = poly2;
+			poly2 = swap;
+		}
+		Terms product = new Terms(poly1.size() + poly2.size());
+		int rows = poly1.size();
+		if (rows == 0) {
+			return new MultivariatePolynomial(poly1, product);
+		}
+		long[] a = poly1.keys, b = poly2.keys;
+		int[] heap = new int[rows];
+		long[] key = new long[rows];
+		int[] cursor = new int[rows];
+		for (int row = 0; row < rows; row++) {
+			heap[row] = row;
+			key[row] = a[row] + b[0];
+		}
+		for (int i = rows / 2 - 1; i >= 0; i--) {
+			siftDown(heap, key, rows, i);
+		}
+		int heapSize = rows;
+		while (heapSize > 0) {
+			long monomial = key[heap[0]];
+			if ((monomial & poly1.guards) != 0) {
+				throw new ArithmeticException("Exponent overflow, largest exponent is " + poly1.maxExponent());
+			}
+			double coeff = 0;
+			while (heapSize > 0 && key[heap[0]] == monomial) {
+				int row = heap[0];
+				coeff += (double) poly1.coeffs[row] * poly2.coeffs[cursor[row]];
+				if (++cursor[row] < b.length) {
+					key[row] = a[row] + b[cursor[row]];
+				} else {
+					heap[0] = heap[--heapSize];
+				}
+				siftDown(heap, key, heapSize, 0);
+			}
+			product.append((float) coeff, monomial);
+		}
+		return new MultivariatePolynomial(poly1, product);
+	}
+
+	private static void siftDown(int[] heap, long[] key, int size, int i) {
+		int item = heap[i];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && key[heap[child + 1]] < key[heap[child]]) {
+				child++;
+			}
+			if (key[heap[child]] >= key[item]) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = item;
+	}
+
+	private static void sameVariables(MultivariatePolynomial poly1, MultivariatePolynomial poly2) {
+		if (poly1.variables != poly2.variables) {
+			throw new IllegalArgumentException("Numbers of variables " + poly1.variables + " and "
+					+ poly2.variables + " differ");
+		}
+	}
+
+	/**
+	 * Evaluates this polynomial at a given point, in double. The powers of each variable
+	 * are computed by repeated squaring, straight from the packed keys.
+	 *
+	 * @param xs Values of the variables, one for each
+	 * @return Value of this polynomial at xs
+	 * @throws IllegalArgumentException If xs does not have one value for each variable
+	 */
+	public float evaluate(float... xs) {
+		if (xs.length != variables) {
+			throw new IllegalArgumentException(xs.length + " values for " + variables + " variables");
+		}
+		double solution = 0;
+		for (int i = 0; i < keys.length; i++) {
+			double term = coeffs[i];
+			for (int v = 0; v < variables; v++) {
+				int exponent = exponent(keys[i], v);
+				if (exponent != 0) {
+					term *= Polynomial.power(xs[v], exponent);
+				}
+			}
+			solution += term;
+		}
+		return (float) solution;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		if (keys.length == 0) {
+			return "0";
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int i = keys.length - 1; i >= 0; i--) {
+			sb.append(coeffs[i]);
+			for (int v = 0; v < variables; v++) {
+				int exponent = exponent(keys[i], v);
+				if (exponent > 0) {
+					sb.append("*x").append(v + 1);
+					if (exponent > 1) {
+						sb.append('^').append(exponent);
+					}
+				}
+			}
+			if (i > 0) {
+				sb.append(" + ");
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Growable parallel arrays of keys and coefficients, dropping zero coefficients.
+	 */
+	private static final class Terms {
+		long[] keys;
+		float[] coeffs;
+		int size;
+
+		Terms(int capacity) {
+			keys = new long[Math.max(capacity, 1)];
+			coeffs = new float[keys.length];
+		}
+
+		void append(float coeff, long key) {
+			if (coeff == 0) {
+				return;
+			}
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, 2 * size);
+				coeffs = Arrays.copyOf(coeffs, 2 * size);
+			}
+			keys[size] = key;
+			coeffs[size] = coeff;
+			size++;
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package poly;
+
+/**
+ * This class implements exact multiplication of coefficient arrays modulo an integer,
+ * with number-theoretic transforms over three NTT-friendly primes. When the modulus
+ * is not one of the primes, each product coefficient is reconstructed from its three
+ * residues by the Chinese remainder theorem (Garner's method) and then reduced. Integer
+ * arrays of either sign are multiplied exactly, with no modulus, by multiplyExact.
+ *
+ * @author runb-cs112
+ *
+ */
+final class NumberTheoreticTransform {
+
+	/**
+	 * NTT primes, each of the form c*2^k + 1 with k >= 23, all with primitive root 3.
+	 */
+	static final long[] PRIMES = { 998244353L, 167772161L, 469762049L };
+
+	/**
+	 * Largest transform length supported by all three primes.
+	 */
+	static final int MAX_LENGTH = 1 << 23;
+
+	/**
+	 * Length of the shorter operand below which products are computed term by term.
+	 */
+	static final int SCHOOLBOOK_THRESHOLD = 64;
+
+	/**
+	 * Bound on the magnitude of the coefficients multiplied exactly by multiplyExact, half
+	 * the product of the first two primes rounded down to a power of two.
+	 */
+	static final long EXACT_BOUND = 1L << 56;
+
+	private static final long ROOT = 3;
+
+	private NumberTheoreticTransform() {
+	}
+
+	/**
+	 * Multiplies two coefficient arrays modulo m.
+	 *
+	 * @param a First operand, non-empty, entries in [0,m)
+	 * @param b Second operand, non-empty, entries in [0,m)
+	 * @param m Modulus, 2 <= m < 2^31
+	 * @return Product modulo m, of length a.length + b.length - 1
+	 * @throws IllegalArgumentException If the product is longer than MAX_LENGTH
+	 */
+	static long[] multiply(long[] a, long[] b, long m) {
+		int length = a.length + b.length - 1;
+		if (Math.min(a.length, b.length) < SCHOOLBOOK_THRESHOLD) {
+			return schoolbook(a, b, m);
+		}
+		if (length > MAX_LENGTH) {
+			throw new IllegalArgumentException("Product of length " + length + " exceeds " + MAX_LENGTH);
+		}
+		for (long p : PRIMES) {
+			if (p == m) {
+				return convolve(a, b, p, length);
+			}
+		}
+		long[] r0 = convolve(a, b, PRIMES[0], length);
+		long[] r1 = convolve(a, b, PRIMES[1], length);
+		long[] r2 = convolve(a, b, PRIMES[2], length);
+		long p0 = PRIMES[0], p1 = PRIMES[1], p2 = PRIMES[2];
+		long inv01 = inverse(p0 % p1, p1);
+		long inv012 = inverse(p0 % p2 * (p1 % p2) % p2, p2);
+		long p0m = p0 % m, p01m = p0 % m * (p1 % m) % m;
+		long[] product = new long[length];
+		for (int i = 0; i < length; i++) {
+			long t1 = (r1[i] - r0[i] % p1 + p1) % p1 * inv01 % p1;
+			long x01 = (r0[i] + p0 % p2 * t1) % p2;
+			long t2 = (r2[i] - x01 + p2) % p2 * inv012 % p2;
+			product[i] = (r0[i] % m + p0m * t1 % m + p01m * t2 % m) % m;
+		}
+		return product;
+	}
+
+	/**
+	 * Multiplies two integer coefficient arrays exactly, modulo the first two primes, and
+	 * recovers each product coefficient from its two residues by the Chinese remainder
+	 * theorem.
+	 *
+	 * @param a First operand, non-empty, entries of either sign
+	 * @param b Second operand, non-empty, entries of either sign
+	 * @return Product, of length a.length + b.length - 1, exact if its coefficients are
+	 * below EXACT_BOUND in magnitude
+	 * @throws IllegalArgumentException If the product is longer than MAX_LENGTH
+	 */
+	static long[] multiplyExact(long[] a, long[] b) {
+		int length = a.length + b.length - 1;
+		if (length > MAX_LENGTH) {
+			throw new IllegalArgumentException("Product of length " + length + " exceeds " + MAX_LENGTH);
+		}
+		long p0 = PRIMES[0], p1 = PRIMES[1];
+		long[] r0 = convolve(reduce(a, p0), reduce(b, p0), p0, length);
+		long[] r1 = convolve(reduce(a, p1), reduce(b, p1), p1, length);
+		long inv01 = inverse(p0 % p1, p1);
+		long[] product = new long[length];
+		for (int i = 0; i < length; i++) {
+			long t1 = (r1[i] - r0[i] % p1 + p1) % p1 * inv01 % p1;
+			long x = r0[i] + p0 * t1;
+			product[i] = x > p0 * p1 / 2 ? x - p0 * p1 : x;
+		}
+		return product;
+	}
+
+	private static long[] reduce(long[] a, long p) {
+		long[] reduced = new long[a.length];
+		for (int i = 0; i < a.length; i++) {
+			long value = a[i] % p;
+			reduced[i] = value < 0 ? value + p : value;
+		}
+		return reduced;
+	}
+
+	/**
+	 * Multiplies two coefficient arrays modulo m, term by term.
+	 */
+	static long[] schoolbook(long[] a, long[] b, long m) {
+		long[] product = new long[a.length + b.length - 1];
+		for (int i = 0; i < a.length; i++) {
+			long ai = a[i];
+			if (ai == 0) {
+				continue;
+			}
+			for (int j = 0; j < b.length; j++) {
+				product[i + j] = (product[i + j] + ai * b[j]) % m;
+			}
+		}
+		return product;
+	}
+
+	/**
+	 * Cyclic convolution modulo the NTT prime p, long enough to hold the whole product.
+	 */
+	private static long[] convolve(long[] a, long[] b, long p, int length) {
+		int n = Integer.highestOneBit(length);
+		if (n < length) {
+			n <<= 1;
+		}
+		long[] fa = new long[n];
+		long[] fb = new long[n];
+		for (int i = 0; i < a.length; i++) {
+			fa[i] = a[i] % p;
+		}
+		for (int i = 0; i < b.length; i++) {
+			fb[i] = b[i] % p;
+		}
+		transform(fa, p, false);
+		transform(fb, p, false);
+		for (int i = 0; i < n; i++) {
+			fa[i] = fa[i] * fb[i] % p;
+		}
+		transform(fa, p, true);
+		long scale = inverse(n, p);
+		long[] product = new long[length];
+		for (int i = 0; i < length; i++) {
+			product[i] = fa[i] * scale % p;
+		}
+		return product;
+	}
+
+	/**
+	 * In-place iterative radix-2 transform modulo p. The inverse transform is not scaled by 1/n.
+	 */
+	private static void transform(long[] a, long p, boolean inverse) {
+		int n = a.length;
+		for (int i = 1, j = 0; i < n; i++) {
+			int bit = n >> 1;
+			for (; (j & bit) != 0; bit >>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if (i < j) {
+				long t = a[i];
+				a[i] = a[j];
+				a[j] = t;
+			}
+		}
+		for (int size = 2; size <= n; size <<= 1) {
+			long w = power(ROOT, (p - 1) / size, p);
+			if (inverse) {
+				w = inverse(w, p);
+			}
+			int half = size >> 1;
+			long[] twiddles = new long[half];
+			twiddles[0] = 1;
+			for (int k = 1; k < half; k++) {
+				twiddles[k] = twiddles[k - 1] * w % p;
+			}
+			for (int start = 0; start < n; start += size) {
+				for (int k = 0; k < half; k++) {
+					int even = start + k, odd = even + half;
+					long t = a[odd] * twiddles[k] % p;
+					long u = a[even];
+					a[even] = u + t < p ? u + t : u + t - p;
+					a[odd] = u - t >= 0 ? u - t : u - t + p;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes base^exponent modulo m, for m < 2^31.
+	 */
+	static long power(long base, long exponent, long m) {
+		long result = 1 % m;
+		base %= m;
+		if (base < 0) {
+			base += m;
+		}
+		while (exponent > 0) {
+			if ((exponent & 1) != 0) {
+				result = result * base % m;
+			}
+			base = base * base % m;
+			exponent >>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the inverse of a modulo m, by the extended Euclidean algorithm.
+	 *
+	 * @throws ArithmeticException If a is not invertible modulo m
+	 */
+	static long inverse(long a, long m) {
+		long r0 = m, r1 = ((a % m) + m) % m;
+		long s0 = 0, s1 = 1;
+		while (r1 != 0) {
+			long q = r0 / r1;
+			long r = r0 - q * r1;
+			r0 = r1;
+			r1 = r;
+			long s = s0 - q * s1;
+			s0 = s1;
+			s1 = s;
+		}
+		if (r0 != 1) {
+			throw new ArithmeticException(a + " is not invertible modulo " + m);
+		}
+		return s0 < 0 ? s0 + m : s0;
+	}
+}
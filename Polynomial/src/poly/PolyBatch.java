@@ -0,0 +1,279 @@
+package poly;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * This class runs a batch of polynomial jobs listed in a manifest file, one job per line:
+ * <pre>
+ *     add      &lt;file1&gt; &lt;file2&gt;
+ *     multiply &lt;file1&gt; &lt;file2&gt;
+ *     evaluate &lt;file&gt; &lt;x&gt;
+ * </pre>
+ * Blank lines and lines starting with # are skipped; relative file names are resolved
+ * against the directory of the manifest. Jobs run in parallel on a fixed pool of threads,
+ * at most WINDOW_PER_THREAD jobs per thread ahead of the output, so finished results
+ * waiting to be written stay bounded. Parsed polynomials are cached for the last
+ * CACHE_SIZE files used, so a file is parsed once however many nearby jobs use it; a
+ * file that fails to parse is not cached. Results are written in manifest order, each
+ * with its run time, through a buffered writer, as soon as all earlier jobs are written;
+ * polynomials are streamed with Polynomial.write. A job that fails reports its error and
+ * does not stop the others. Sums are computed with Polynomial.sum.
+ *
+ * @author runb-cs112
+ *
+ */
+public class PolyBatch {
+
+	/**
+	 * Number of jobs per thread that may be started ahead of the job being written.
+	 */
+	public static final int WINDOW_PER_THREAD = 4;
+
+	/**
+	 * Largest number of files whose parsed polynomials are cached.
+	 */
+	public static final int CACHE_SIZE = 64;
+
+	/**
+	 * Parsed polynomials, or parses in progress, keyed by canonical path, shared by all
+	 * jobs. The map is in access order and drops its least recently used entry beyond
+	 * CACHE_SIZE entries; it is guarded by its own lock.
+	 */
+	private final Map<String, FutureTask<Node>> cache = new LinkedHashMap<String, FutureTask<Node>>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		/* (non-Javadoc)
+		 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+		 */
+		protected boolean removeEldestEntry(Map.Entry<String, FutureTask<Node>> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Directory against which relative file names are resolved.
+	 */
+	private final File directory;
+
+	/**
+	 * Initializes a batch whose relative file names are resolved against a directory.
+	 *
+	 * @param directory Directory, null for the current directory
+	 */
+	public PolyBatch(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Reads a manifest, runs its jobs on the given number of threads, and writes the
+	 * results in manifest order.
+	 *
+	 * @param manifest Manifest file
+	 * @param threads Number of threads
+	 * @param out Writer that receives the results; it is flushed, not closed
+	 * @throws IOException If the manifest cannot be read or has an invalid line, or there
+	 * is any error in writing
+	 * @throws IllegalArgumentException If threads is not positive
+	 */
+	public void run(File manifest, int threads, Writer out)
+	throws IOException {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be positive");
+		}
+		List<Job> jobs = readManifest(manifest);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			ArrayDeque<Future<Result>> window = new ArrayDeque<Future<Result>>();
+			int next = 0;
+			while (next < jobs.size() || !window.isEmpty()) {
+				while (next < jobs.size() && window.size() < WINDOW_PER_THREAD * threads) {
+					window.add(executor.submit(jobs.get(next++)));
+				}
+				result(window.remove()).write(out);
+			}
+			out.flush();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static Result result(Future<Result> future)
+	throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for a job", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Job failed", e.getCause());
+		}
+	}
+
+	private List<Job> readManifest(File manifest)
+	throws IOException {
+		List<Job> jobs = new ArrayList<Job>();
+		Scanner sc = new Scanner(manifest);
+		try {
+			int lineNumber = 0;
+			while (sc.hasNextLine()) {
+				String line = sc.nextLine().trim();
+				lineNumber++;
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] fields = line.split("\\s+");
+				if (fields.length != 3 || !(fields[0].equals("add") || fields[0].equals("multiply")
+						|| fields[0].equals("evaluate"))) {
+					throw new IOException(manifest + ":" + lineNumber + ": invalid job \"" + line + "\"");
+				}
+				jobs.add(new Job(jobs.size() + 1, fields));
+			}
+		} finally {
+			sc.close();
+		}
+		return jobs;
+	}
+
+	/**
+	 * Returns the polynomial in a file, parsing it unless it is cached. If several jobs ask
+	 * for the same file at once, one parses it and the others wait for it. A parse that
+	 * fails is taken out of the cache, so the next job to ask parses the file again.
+	 */
+	private Node polynomial(String name)
+	throws IOException, InterruptedException {
+		File file = new File(name);
+		if (!file.isAbsolute() && directory != null) {
+			file = new File(directory, name);
+		}
+		final File source = file.getCanonicalFile();
+		FutureTask<Node> task = new FutureTask<Node>(new Callable<Node>() {
+			public Node call()
+			throws IOException {
+				return Polynomial.read(source);
+			}
+		});
+		String key = source.getPath();
+		FutureTask<Node> cached;
+		synchronized (cache) {
+			cached = cache.get(key);
+			if (cached == null) {
+				cache.put(key, task);
+			}
+		}
+		if (cached == null) {
+			cached = task;
+			task.run();
+		}
+		try {
+			return cached.get();
+		} catch (ExecutionException e) {
+			synchronized (cache) {
+				cache.remove(key, cached);
+			}
+			Throwable cause = e.getCause();
+			throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+		}
+	}
+
+	/**
+	 * A job of the manifest.
+	 */
+	private class Job implements Callable<Result> {
+		final int number;
+		final String[] fields;
+
+		Job(int number, String[] fields) {
+			this.number = number;
+			this.fields = fields;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		public Result call()
+		throws InterruptedException {
+			Result result = new Result(number, fields);
+			long start = System.nanoTime();
+			try {
+				Node poly1 = polynomial(fields[1]);
+				if (fields[0].equals("evaluate")) {
+					result.value = Float.toString(Polynomial.evaluate(poly1, Float.parseFloat(fields[2])));
+				} else {
+					Node poly2 = polynomial(fields[2]);
+					result.poly = fields[0].equals("add") ? Polynomial.sum(poly1, poly2)
+							: Polynomial.multiply(poly1, poly2);
+				}
+			} catch (IOException e) {
+				result.value = "error: " + e.getMessage();
+			} catch (RuntimeException e) {
+				result.value = "error: " + e;
+			}
+			result.nanos = System.nanoTime() - start;
+			return result;
+		}
+	}
+
+	/**
+	 * The outcome of a job: a polynomial, or a value or error message, and the run time.
+	 */
+	private static class Result {
+		final int number;
+		final String[] fields;
+		Node poly;
+		String value;
+		long nanos;
+
+		Result(int number, String[] fields) {
+			this.number = number;
+			this.fields = fields;
+		}
+
+		/**
+		 * Writes a header line with the job and its run time, then the result (a polynomial
+		 * is streamed term by term), then a blank line.
+		 */
+		void write(Writer out)
+		throws IOException {
+			long micros = nanos / 1000;
+			out.write(String.format("[%d] %s %s %s (%d.%03d ms)\n", number, fields[0], fields[1], fields[2],
+					micros / 1000, micros % 1000));
+			if (value != null) {
+				out.write(value);
+			} else {
+				Polynomial.write(poly, out);
+			}
+			out.write("\n\n");
+		}
+	}
+
+	/**
+	 * Runs a manifest from the command line and writes the results to standard output.
+	 *
+	 * @param args Manifest file name, and optionally the number of threads (default: one
+	 * per processor)
+	 * @throws IOException If the manifest cannot be read or has an invalid line
+	 */
+	public static void main(String[] args)
+	throws IOException {
+		File manifest = new File(args[0]);
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+		new PolyBatch(manifest.getAbsoluteFile().getParentFile()).run(manifest, threads, out);
+	}
+}
@@ -0,0 +1,192 @@
+package poly;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * This class implements a node of a lazy polynomial expression: a polynomial linked list,
+ * or the sum, product or power of other expressions. Expressions are built with an
+ * ExpressionDag, which shares repeated subexpressions. An expression can be evaluated at
+ * one or many points directly from its parts, without expanding any product; it is
+ * expanded to a linked list only when expand is called, and each node caches its
+ * expansion so shared subexpressions are expanded once.
+ *
+ * @author runb-cs112
+ *
+ */
+public final class PolyExpr {
+
+	static final int LEAF = 0, SUM = 1, PRODUCT = 2, POWER = 3;
+
+	/**
+	 * Kind of node: LEAF, SUM, PRODUCT or POWER.
+	 */
+	final int kind;
+
+	/**
+	 * Operands; right is null for POWER and both are null for LEAF.
+	 */
+	final PolyExpr left, right;
+
+	/**
+	 * Exponent of a POWER node.
+	 */
+	final int exponent;
+
+	/**
+	 * Expansion of this node, set at creation for a LEAF and on first expansion otherwise.
+	 */
+	private TermArrays expansion;
+
+	/**
+	 * Nodes of this expression in evaluation order (operands before their users), each
+	 * shared node once. Built on first evaluation.
+	 */
+	private PolyExpr[] order;
+
+	PolyExpr(int kind, PolyExpr left, PolyExpr right, int exponent, TermArrays expansion) {
+		this.kind = kind;
+		this.left = left;
+		this.right = right;
+		this.exponent = exponent;
+		this.expansion = expansion;
+	}
+
+	/**
+	 * Evaluates this expression at a given value, evaluating each shared subexpression once.
+	 *
+	 * @param x Value at which evaluation is to be done
+	 * @return Value of this expression at x
+	 */
+	public float evaluate(float x) {
+		float[] out = new float[1];
+		evaluate(new float[] { x }, out);
+		return out[0];
+	}
+
+	/**
+	 * Evaluates this expression at each of the given values. Points are processed in blocks;
+	 * for each block every node of the expression, in evaluation order, is evaluated over
+	 * the whole block from the values of its operands, in double.
+	 *
+	 * @param xs Values at which evaluation is to be done
+	 * @param out Array that receives the values at xs, at least as long as xs
+	 * @throws IllegalArgumentException If out is shorter than xs
+	 */
+	public void evaluate(float[] xs, float[] out) {
+		if (out.length < xs.length) {
+			throw new IllegalArgumentException("Output array is shorter than input array");
+		}
+		PolyExpr[] nodes = order();
+		IdentityHashMap<PolyExpr, double[]> values = new IdentityHashMap<PolyExpr, double[]>();
+		int block = Math.min(Polynomial.EVALUATION_BLOCK, xs.length);
+		for (PolyExpr node : nodes) {
+			values.put(node, new double[block]);
+		}
+		for (int start = 0; start < xs.length; start += block) {
+			int length = Math.min(block, xs.length - start);
+			for (PolyExpr node : nodes) {
+				double[] value = values.get(node);
+				switch (node.kind) {
+				case LEAF:
+					Polynomial.evaluate(node.expansion, xs, start, length, value);
+					break;
+				case SUM: {
+					double[] a = values.get(node.left), b = values.get(node.right);
+					for (int i = 0; i < length; i++) {
+						value[i] = a[i] + b[i];
+					}
+					break;
+				}
+				case PRODUCT: {
+					double[] a = values.get(node.left), b = values.get(node.right);
+					for (int i = 0; i < length; i++) {
+						value[i] = a[i] * b[i];
+					}
+					break;
+				}
+				default: {
+					double[] a = values.get(node.left);
+					for (int i = 0; i < length; i++) {
+						value[i] = Polynomial.power(a[i], node.exponent);
+					}
+					break;
+				}
+				}
+			}
+			double[] result = values.get(this);
+			for (int i = 0; i < length; i++) {
+				out[start + i] = (float) result[i];
+			}
+		}
+	}
+
+	/**
+	 * Expands this expression into a new polynomial linked list. Expansions of all nodes
+	 * are cached, so expanding again, or expanding an expression that shares nodes with
+	 * this one, reuses them. The returned list has all new nodes.
+	 *
+	 * @return Front of the new linked list, in ascending order of degrees
+	 */
+	public Node expand() {
+		return expansion().toNode();
+	}
+
+	/**
+	 * Returns the cached expansion, computing it (and those of the operands) if needed.
+	 */
+	TermArrays expansion() {
+		if (expansion == null) {
+			for (PolyExpr node : order()) {
+				if (node.expansion != null) {
+					continue;
+				}
+				switch (node.kind) {
+				case SUM:
+					node.expansion = TermArrays.add(node.left.expansion, node.right.expansion);
+					break;
+				case PRODUCT:
+					node.expansion = Polynomial.multiply(node.left.expansion, node.right.expansion);
+					break;
+				default:
+					node.expansion = Polynomial.pow(node.left.expansion, node.exponent);
+					break;
+				}
+			}
+		}
+		return expansion;
+	}
+
+	/**
+	 * Returns the nodes of this expression in evaluation order, building it on first use.
+	 */
+	private PolyExpr[] order() {
+		if (order == null) {
+			List<PolyExpr> nodes = new ArrayList<PolyExpr>();
+			IdentityHashMap<PolyExpr, Boolean> visited = new IdentityHashMap<PolyExpr, Boolean>();
+			List<PolyExpr> stack = new ArrayList<PolyExpr>();
+			stack.add(this);
+			while (!stack.isEmpty()) {
+				PolyExpr node = stack.get(stack.size() - 1);
+				if (visited.containsKey(node)) {
+					stack.remove(stack.size() - 1);
+					if (!visited.get(node)) {
+						visited.put(node, true);
+						nodes.add(node);
+					}
+					continue;
+				}
+				visited.put(node, false);
+				if (node.right != null && !visited.containsKey(node.right)) {
+					stack.add(node.right);
+				}
+				if (node.left != null && !visited.containsKey(node.left)) {
+					stack.add(node.left);
+				}
+			}
+			order = nodes.toArray(new PolyExpr[nodes.size()]);
+		}
+		return order;
+	}
+}
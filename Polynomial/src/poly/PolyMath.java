@@ -0,0 +1,213 @@
+package poly;
+
+import java.util.Arrays;
+
+/**
+ * This class implements arithmetic on dense polynomials given as double coefficient
+ * arrays indexed by degree: fast multiplication (through Convolution), power series
+ * inversion by Newton iteration, and division with remainder built on them.
+ *
+ * @author runb-cs112
+ *
+ */
+final class PolyMath {
+
+	/**
+	 * Quotient length or divisor degree below which division is done term by term.
+	 */
+	static final int DIVISION_THRESHOLD = 64;
+
+	/**
+	 * Largest residual of a Newton quotient, relative to the dividend, for which it is
+	 * accepted. See divide.
+	 */
+	static final double NEWTON_TOLERANCE = 1e-9;
+
+	private PolyMath() {
+	}
+
+	/**
+	 * Returns the degree of a coefficient array, ignoring trailing zeros.
+	 *
+	 * @return Degree, or -1 if all coefficients are zero
+	 */
+	static int degree(double[] a) {
+		int degree = a.length - 1;
+		while (degree >= 0 && a[degree] == 0) {
+			degree--;
+		}
+		return degree;
+	}
+
+	/**
+	 * Returns a copy of a without trailing zeros.
+	 */
+	static double[] trim(double[] a) {
+		return Arrays.copyOf(a, degree(a) + 1);
+	}
+
+	/**
+	 * Copies terms, in any order, into a coefficient array indexed by degree.
+	 *
+	 * @throws IllegalArgumentException If there is a term of negative degree
+	 */
+	static double[] of(TermArrays terms) {
+		int maxDegree = -1;
+		for (int i = 0; i < terms.size; i++) {
+			if (terms.degrees[i] < 0) {
+				throw new IllegalArgumentException("Negative degree " + terms.degrees[i]);
+			}
+			maxDegree = Math.max(maxDegree, terms.degrees[i]);
+		}
+		double[] a = new double[maxDegree + 1];
+		for (int i = 0; i < terms.size; i++) {
+			a[terms.degrees[i]] += terms.coeffs[i];
+		}
+		return a;
+	}
+
+	/**
+	 * Builds a new polynomial linked list from a coefficient array, in ascending order of
+	 * degrees, leaving out coefficients that are zero as floats.
+	 */
+	static Node toNode(double[] a) {
+		Node front = null;
+		for (int degree = a.length - 1; degree >= 0; degree--) {
+			float coeff = (float) a[degree];
+			if (coeff != 0) {
+				front = new Node(coeff, degree, front);
+			}
+		}
+		return front;
+	}
+
+	/**
+	 * Multiplies two coefficient arrays; either may be empty.
+	 */
+	static double[] multiply(double[] a, double[] b) {
+		if (a.length == 0 || b.length == 0) {
+			return new double[0];
+		}
+		return Convolution.multiply(a, b);
+	}
+
+	/**
+	 * Returns a - b.
+	 */
+	static double[] subtract(double[] a, double[] b) {
+		double[] difference = Arrays.copyOf(a, Math.max(a.length, b.length));
+		for (int i = 0; i < b.length; i++) {
+			difference[i] -= b[i];
+		}
+		return difference;
+	}
+
+	/**
+	 * Computes the power series inverse of a, modulo x^n, by Newton iteration
+	 * g = g*(2 - a*g), doubling the precision at each step.
+	 *
+	 * @param a Series with a[0] != 0
+	 * @param n Number of coefficients wanted
+	 * @return g with a*g = 1 modulo x^n
+	 */
+	static double[] inverse(double[] a, int n) {
+		double[] g = { 1 / a[0] };
+		int length = 1;
+		while (length < n) {
+			length = Math.min(2 * length, n);
+			double[] error = Arrays.copyOf(multiply(Arrays.copyOf(a, Math.min(a.length, length)), g), length);
+			for (int i = 0; i < length; i++) {
+				error[i] = -error[i];
+			}
+			error[0] += 2;
+			g = Arrays.copyOf(multiply(g, error), length);
+		}
+		return g;
+	}
+
+	/**
+	 * Divides a by b. Large divisions compute the reversed quotient as the reversed
+	 * dividend times the power series inverse of the reversed divisor, so they cost a
+	 * constant number of fast multiplications; small ones are done term by term. The
+	 * inverse series can grow exponentially (it does for most integer divisors whose
+	 * leading coefficient is small), and then its rounding errors swamp the quotient, so
+	 * the Newton quotient q is checked: the terms of a - b*q of degree m and above, which
+	 * are zero for the exact quotient, must be at most NEWTON_TOLERANCE times the largest
+	 * coefficient of a. Otherwise the division is redone term by term.
+	 *
+	 * @param a Dividend
+	 * @param b Divisor, not zero
+	 * @return { quotient, remainder }, remainder of degree less than that of b
+	 * @throws ArithmeticException If b is zero
+	 */
+	static double[][] divide(double[] a, double[] b) {
+		int n = degree(a), m = degree(b);
+		if (m < 0) {
+			throw new ArithmeticException("Division by the zero polynomial");
+		}
+		if (n < m) {
+			return new double[][] { new double[0], trim(a) };
+		}
+		int length = n - m + 1;
+		if (m < DIVISION_THRESHOLD || length < DIVISION_THRESHOLD) {
+			return schoolbookDivide(a, n, b, m);
+		}
+		double[] reversedA = new double[length];
+		for (int i = 0; i < length; i++) {
+			reversedA[i] = a[n - i];
+		}
+		double[] reversedB = new double[Math.min(m + 1, length)];
+		for (int i = 0; i < reversedB.length; i++) {
+			reversedB[i] = b[m - i];
+		}
+		double[] reversedQ = Arrays.copyOf(multiply(reversedA, inverse(reversedB, length)), length);
+		double[] quotient = new double[length];
+		for (int i = 0; i < length; i++) {
+			quotient[i] = reversedQ[length - 1 - i];
+		}
+		double[] product = multiply(Arrays.copyOf(b, m + 1), quotient);
+		double bound = NEWTON_TOLERANCE * maxAbs(a, n + 1);
+		for (int i = m; i <= n; i++) {
+			if (!(Math.abs(a[i] - product[i]) <= bound)) {
+				return schoolbookDivide(a, n, b, m);
+			}
+		}
+		double[] remainder = new double[m];
+		for (int i = 0; i < m; i++) {
+			remainder[i] = a[i] - product[i];
+		}
+		return new double[][] { quotient, trim(remainder) };
+	}
+
+	private static double maxAbs(double[] a, int length) {
+		double max = 0;
+		for (int i = 0; i < length; i++) {
+			max = Math.max(max, Math.abs(a[i]));
+		}
+		return max;
+	}
+
+	static double[][] schoolbookDivide(double[] a, int n, double[] b, int m) {
+		double[] remainder = Arrays.copyOf(a, n + 1);
+		double[] quotient = new double[n - m + 1];
+		double lead = b[m];
+		for (int i = n - m; i >= 0; i--) {
+			double coeff = remainder[i + m] / lead;
+			quotient[i] = coeff;
+			remainder[i + m] = 0;
+			if (coeff != 0) {
+				for (int j = 0; j < m; j++) {
+					remainder[i + j] -= coeff * b[j];
+				}
+			}
+		}
+		return new double[][] { quotient, trim(Arrays.copyOf(remainder, m)) };
+	}
+
+	/**
+	 * Returns the remainder of a divided by b.
+	 */
+	static double[] remainder(double[] a, double[] b) {
+		return divide(a, b)[1];
+	}
+}
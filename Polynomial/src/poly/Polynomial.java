@@ -1,188 +1,903 @@
-package poly;
-
-import java.io.IOException;
-import java.util.Scanner;
-
-/**
- * This class implements evaluate, add and multiply for polynomials.
- * 
- * @author runb-cs112
- *
- */
-public class Polynomial {
-	
-	/**
-	 * Reads a polynomial from an input stream (file or keyboard). The storage format
-	 * of the polynomial is:
-	 * <pre>
-	 *     <coeff> <degree>
-	 *     <coeff> <degree>
-	 *     ...
-	 *     <coeff> <degree>
-	 * </pre>
-	 * with the guarantee that degrees will be in descending order. For example:
-	 * <pre>
-	 *      4 5
-	 *     -2 3
-	 *      2 1
-	 *      3 0
-	 * </pre>
-	 * which represents the polynomial:
-	 * <pre>
-	 *      4*x^5 - 2*x^3 + 2*x + 3 
-	 * </pre>
-	 * 
-	 * @param sc Scanner from which a polynomial is to be read
-	 * @throws IOException If there is any input error in reading the polynomial
-	 * @return The polynomial linked list (front node) constructed from coefficients and
-	 *         degrees read from scanner
-	 */
-	public static Node read(Scanner sc) 
-	throws IOException {
-		Node poly = null;
-		while (sc.hasNextLine()) {
-			Scanner scLine = new Scanner(sc.nextLine());
-			poly = new Node(scLine.nextFloat(), scLine.nextInt(), poly);
-			scLine.close();
-		}
-		return poly;
-	}
-	
-	/**
-	 * Returns the sum of two polynomials - DOES NOT change either of the input polynomials.
-	 * The returned polynomial MUST have all new nodes. In other words, none of the nodes
-	 * of the input polynomials can be in the result.
-	 * 
-	 * @param poly1 First input polynomial (front of polynomial linked list)
-	 * @param poly2 Second input polynomial (front of polynomial linked list
-	 * @return A new polynomial which is the sum of the input polynomials - the returned node
-	 *         is the front of the result polynomial
-	 */
-	public static Node add(Node poly1, Node poly2) {
-		if (poly1 == null && poly2 == null) {
-			return null;
-		}
-		Node poly3 = null;
-		Node previous = null;
-		Node current = null;
-
-		while (poly1 != null || poly2 != null) {
-			int comparison = compareDegree(poly1, poly2);
-			if (comparison == 1) {
-				current = new Node(poly2.term.coeff, poly2.term.degree, null);
-				poly2 = poly2.next;
-			}
-			else if (comparison == -1) {
-				current = new Node(poly1.term.coeff, poly1.term.degree, null);
-				poly1 = poly1.next;
-			}
-			else if (comparison == 0) {
-				if (poly1.term.coeff + poly2.term.coeff != 0) {
-					current = new Node(poly1.term.coeff + poly2.term.coeff, poly1.term.degree, null);
-				}
-				poly1 = poly1.next;
-				poly2 = poly2.next;
-
-			}
-			if (previous != null) {
-				previous.next = current;
-			} else {
-				poly3 = current;
-			}
-			previous = current;
-		}
-		return poly3;
-	}
-
-	// < is -1
-	// > is 1
-	// = is 0
-	public static int compareDegree(Node one, Node two) {
-		if (one == null) {
-			return 1;
-		}
-		else if (two == null) {
-			return -1;
-		}
-		Integer degree1 = one.term.degree;
-		return degree1.compareTo(two.term.degree);
-	}
-	
-	/**
-	 * Returns the product of two polynomials - DOES NOT change either of the input polynomials.
-	 * The returned polynomial MUST have all new nodes. In other words, none of the nodes
-	 * of the input polynomials can be in the result.
-	 * 
-	 * @param poly1 First input polynomial (front of polynomial linked list)
-	 * @param poly2 Second input polynomial (front of polynomial linked list)
-	 * @return A new polynomial which is the product of the input polynomials - the returned node
-	 *         is the front of the result polynomial
-	 */
-	public static Node multiply(Node poly1, Node poly2) {
-		if (poly1 == null || poly2 == null) {
-			return null;
-		}
-		Node poly3 = null;
-		Node current;
-		for (Node pointer1 = poly1; pointer1 != null; pointer1 = pointer1.next) {
-			for (Node pointer2 = poly2; pointer2 != null; pointer2 = pointer2.next) {
-				float coeff = pointer1.term.coeff * pointer2.term.coeff;
-				int degree = pointer1.term.degree + pointer2.term.degree;
-				current = new Node (coeff, degree, null);
-				poly3 = add(poly3, current);
-			}
-		}
-		return poly3;
-	}
-		
-	/**
-	 * Evaluates a polynomial at a given value.
-	 * 
-	 * @param poly Polynomial (front of linked list) to be evaluated
-	 * @param x Value at which evaluation is to be done
-	 * @return Value of polynomial p at x
-	 */
-	public static float evaluate(Node poly, float x) {
-		float solution = 0;
-
-		if (poly == null) {
-			return 0;
-		}
-		do {
-			solution = solution + evaluateNode(poly, x);
-			poly = poly.next;
-		} while (poly != null);
-		return solution;
-	}
-
-	public static float evaluateNode(Node poly, float x) {
-		float coefficient = poly.term.coeff;
-		int degree = poly.term.degree;
-
-		if (degree == 0) {
-			return coefficient;
-		} else {
-			float holder = (float) Math.pow(x, degree);
-			return coefficient * holder;
-		}
-	}
-	
-	/**
-	 * Returns string representation of a polynomial
-	 * 
-	 * @param poly Polynomial (front of linked list)
-	 * @return String representation, in descending order of degrees
-	 */
-	public static String toString(Node poly) {
-		if (poly == null) {
-			return "0";
-		} 
-		
-		String retval = poly.term.toString();
-		for (Node current = poly.next ; current != null ;
-		current = current.next) {
-			retval = current.term.toString() + " + " + retval;
-		}
-		return retval;
-	}	
-}
+package poly;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class implements evaluate, add and multiply for polynomials.
+ * 
+ * @author runb-cs112
+ *
+ */
+public class Polynomial {
+	
+	/**
+	 * Reads a polynomial from an input stream (file or keyboard). The storage format
+	 * of the polynomial is:
+	 * <pre>
+	 *     <coeff> <degree>
+	 *     <coeff> <degree>
+	 *     ...
+	 *     <coeff> <degree>
+	 * </pre>
+	 * with the guarantee that degrees will be in descending order. For example:
+	 * <pre>
+	 *      4 5
+	 *     -2 3
+	 *      2 1
+	 *      3 0
+	 * </pre>
+	 * which represents the polynomial:
+	 * <pre>
+	 *      4*x^5 - 2*x^3 + 2*x + 3 
+	 * </pre>
+	 * 
+	 * @param sc Scanner from which a polynomial is to be read
+	 * @throws IOException If there is any input error in reading the polynomial
+	 * @return The polynomial linked list (front node) constructed from coefficients and
+	 *         degrees read from scanner
+	 */
+	public static Node read(Scanner sc) 
+	throws IOException {
+		Node poly = null;
+		while (sc.hasNextLine()) {
+			Scanner scLine = new Scanner(sc.nextLine());
+			poly = new Node(scLine.nextFloat(), scLine.nextInt(), poly);
+			scLine.close();
+		}
+		return poly;
+	}
+	
+	/**
+	 * Reads a polynomial from a file in the storage format described in read(Scanner),
+	 * and returns the same linked list. The file is memory-mapped and parsed directly
+	 * from its bytes; large files are cut into chunks at line boundaries, which are
+	 * parsed in parallel. Blank lines are skipped.
+	 * 
+	 * @param file File from which a polynomial is to be read
+	 * @throws IOException If there is any input error in reading the polynomial
+	 * @return The polynomial linked list (front node) constructed from coefficients and
+	 *         degrees read from the file
+	 */
+	public static Node read(File file) 
+	throws IOException {
+		TermArrays terms = MappedReader.read(file);
+		Node poly = null;
+		for (int i = 0; i < terms.size; i++) {
+			poly = new Node(terms.coeffs[i], terms.degrees[i], poly);
+		}
+		return poly;
+	}
+	
+	/**
+	 * Returns the sum of two polynomials - DOES NOT change either of the input polynomials.
+	 * The returned polynomial MUST have all new nodes. In other words, none of the nodes
+	 * of the input polynomials can be in the result.
+	 * 
+	 * @param poly1 First input polynomial (front of polynomial linked list)
+	 * @param poly2 Second input polynomial (front of polynomial linked list
+	 * @return A new polynomial which is the sum of the input polynomials - the returned node
+	 *         is the front of the result polynomial
+	 */
+	public static Node add(Node poly1, Node poly2) {
+		if (poly1 == null && poly2 == null) {
+			return null;
+		}
+		Node poly3 = null;
+		Node previous = null;
+		Node current = null;
+
+		while (poly1 != null || poly2 != null) {
+			int comparison = compareDegree(poly1, poly2);
+			if (comparison == 1) {
+				current = new Node(poly2.term.coeff, poly2.term.degree, null);
+				poly2 = poly2.next;
+			}
+			else if (comparison == -1) {
+				current = new Node(poly1.term.coeff, poly1.term.degree, null);
+				poly1 = poly1.next;
+			}
+			else if (comparison == 0) {
+				if (poly1.term.coeff + poly2.term.coeff != 0) {
+					current = new Node(poly1.term.coeff + poly2.term.coeff, poly1.term.degree, null);
+				}
+				poly1 = poly1.next;
+				poly2 = poly2.next;
+
+			}
+			if (previous != null) {
+				previous.next = current;
+			} else {
+				poly3 = current;
+			}
+			previous = current;
+		}
+		return poly3;
+	}
+
+	/**
+	 * Returns the sum of two polynomials stored in a term store - DOES NOT change either of
+	 * the input polynomials. The result is a new list in the same store, built from store
+	 * slots (reused ones first), so no Node or Term is allocated.
+	 *
+	 * @param store Store holding both inputs and the result
+	 * @param poly1 Index of the front term of the first input, in ascending order of degrees
+	 * @param poly2 Index of the front term of the second input, in ascending order of degrees
+	 * @return Index of the front term of the sum, TermStore.NONE if it is zero
+	 */
+	public static int add(TermStore store, int poly1, int poly2) {
+		int front = TermStore.NONE, last = TermStore.NONE;
+		while (poly1 != TermStore.NONE || poly2 != TermStore.NONE) {
+			float coeff;
+			int degree;
+			if (poly2 == TermStore.NONE
+					|| (poly1 != TermStore.NONE && store.degree(poly1) < store.degree(poly2))) {
+				coeff = store.coeff(poly1);
+				degree = store.degree(poly1);
+				poly1 = store.next(poly1);
+			} else if (poly1 == TermStore.NONE || store.degree(poly2) < store.degree(poly1)) {
+				coeff = store.coeff(poly2);
+				degree = store.degree(poly2);
+				poly2 = store.next(poly2);
+			} else {
+				coeff = store.coeff(poly1) + store.coeff(poly2);
+				degree = store.degree(poly1);
+				poly1 = store.next(poly1);
+				poly2 = store.next(poly2);
+				if (coeff == 0) {
+					continue;
+				}
+			}
+			int index = store.allocate(coeff, degree, TermStore.NONE);
+			if (last == TermStore.NONE) {
+				front = index;
+			} else {
+				store.link(last, index);
+			}
+			last = index;
+		}
+		return front;
+	}
+
+	/**
+	 * Returns the sum of any number of polynomials - DOES NOT change any of the inputs.
+	 * The returned polynomial has all new nodes.
+	 * 
+	 * @param polys Input polynomials (fronts of linked lists), null entries are zero
+	 * @return A new polynomial which is the sum of the inputs
+	 */
+	public static Node sum(Node... polys) {
+		return sumTerms(Arrays.asList(polys)).toNode();
+	}
+
+	/**
+	 * Returns the sum of a list of polynomials - DOES NOT change any of the inputs.
+	 * The returned polynomial has all new nodes. All lists are merged in a single pass,
+	 * with a min-heap of list positions keyed on degree, so the work is O(N log k) for
+	 * N terms in k polynomials, instead of the quadratic cost of chaining add.
+	 * 
+	 * @param polys Input polynomials (fronts of linked lists), null entries are zero
+	 * @return A new polynomial which is the sum of the inputs
+	 */
+	public static Node sum(List<Node> polys) {
+		return sumTerms(polys).toNode();
+	}
+
+	/**
+	 * Returns the sum of a list of polynomials, like sum(List), computed on the common
+	 * fork-join pool by tree reduction: groups of polynomials are merged in one pass each,
+	 * and the partial sums are merged pairwise. Coefficients may differ from those of
+	 * sum(List) in the last float bits, since they are added in a different order.
+	 * 
+	 * @param polys Input polynomials (fronts of linked lists), null entries are zero
+	 * @return A new polynomial which is the sum of the inputs
+	 */
+	public static Node sumParallel(List<Node> polys) {
+		List<Node> copy = new ArrayList<Node>(polys);
+		return ForkJoinPool.commonPool().invoke(new SumTask(copy, 0, copy.size())).toNode();
+	}
+
+	/**
+	 * Merges polynomials, each in ascending order of degrees, into term arrays.
+	 */
+	static TermArrays sumTerms(List<Node> polys) {
+		Node[] cursors = new Node[polys.size()];
+		int lists = 0, terms = 0;
+		for (Node poly : polys) {
+			if (poly != null) {
+				cursors[lists++] = poly;
+				for (Node current = poly; current != null; current = current.next) {
+					terms++;
+				}
+			}
+		}
+		int[] heap = new int[lists];
+		int[] key = new int[lists];
+		for (int i = 0; i < lists; i++) {
+			heap[i] = i;
+			key[i] = cursors[i].term.degree;
+		}
+		for (int i = lists / 2 - 1; i >= 0; i--) {
+			siftDown(heap, key, lists, i);
+		}
+		TermArrays sum = new TermArrays(terms);
+		int heapSize = lists;
+		while (heapSize > 0) {
+			int degree = key[heap[0]];
+			double coeff = 0;
+			while (heapSize > 0 && key[heap[0]] == degree) {
+				int list = heap[0];
+				coeff += cursors[list].term.coeff;
+				cursors[list] = cursors[list].next;
+				if (cursors[list] != null) {
+					key[list] = cursors[list].term.degree;
+				} else {
+					heap[0] = heap[--heapSize];
+				}
+				siftDown(heap, key, heapSize, 0);
+			}
+			if ((float) coeff != 0) {
+				sum.append((float) coeff, degree);
+			}
+		}
+		return sum;
+	}
+
+	// < is -1
+	// > is 1
+	// = is 0
+	public static int compareDegree(Node one, Node two) {
+		if (one == null) {
+			return 1;
+		}
+		else if (two == null) {
+			return -1;
+		}
+		Integer degree1 = one.term.degree;
+		return degree1.compareTo(two.term.degree);
+	}
+	
+	/**
+	 * Returns the product of two polynomials - DOES NOT change either of the input polynomials.
+	 * The returned polynomial MUST have all new nodes. In other words, none of the nodes
+	 * of the input polynomials can be in the result.
+	 * 
+	 * @param poly1 First input polynomial (front of polynomial linked list)
+	 * @param poly2 Second input polynomial (front of polynomial linked list)
+	 * @return A new polynomial which is the product of the input polynomials - the returned node
+	 *         is the front of the result polynomial
+	 */
+	public static Node multiply(Node poly1, Node poly2) {
+		if (poly1 == null || poly2 == null) {
+			return null;
+		}
+		return multiply(TermArrays.of(poly1), TermArrays.of(poly2)).toNode();
+	}
+
+	/**
+	 * Returns the product of two polynomials stored in a term store - DOES NOT change either
+	 * of the input polynomials. The product is computed as by multiply(Node, Node), and
+	 * stored as a new list in the same store, so no Node or Term is allocated.
+	 *
+	 * @param store Store holding both inputs and the result
+	 * @param poly1 Index of the front term of the first input, in ascending order of degrees
+	 * @param poly2 Index of the front term of the second input, in ascending order of degrees
+	 * @return Index of the front term of the product, TermStore.NONE if it is zero
+	 */
+	public static int multiply(TermStore store, int poly1, int poly2) {
+		if (poly1 == TermStore.NONE || poly2 == TermStore.NONE) {
+			return TermStore.NONE;
+		}
+		return store.append(multiply(store.toTerms(poly1), store.toTerms(poly2)));
+	}
+
+	/**
+	 * Smallest number of term products a block of multiplyParallel is given.
+	 */
+	public static final int PARALLEL_BLOCK_PRODUCTS = 1 << 16;
+
+	/**
+	 * Returns the product of two polynomials, like multiply(Node, Node), computed in
+	 * parallel on the common fork-join pool. The operand with more terms is cut into
+	 * blocks, about eight per worker thread but of at least PARALLEL_BLOCK_PRODUCTS term
+	 * products each.
+	 *
+	 * @param poly1 First input polynomial (front of polynomial linked list)
+	 * @param poly2 Second input polynomial (front of polynomial linked list)
+	 * @return A new polynomial which is the product of the input polynomials
+	 */
+	public static Node multiplyParallel(Node poly1, Node poly2) {
+		TermArrays a = TermArrays.of(poly1), b = TermArrays.of(poly2);
+		TermArrays outer = a.size >= b.size ? a : b, inner = outer == a ? b : a;
+		int blocks = 8 * ForkJoinPool.commonPool().getParallelism();
+		int blockSize = Math.max(outer.size / blocks, PARALLEL_BLOCK_PRODUCTS / Math.max(inner.size, 1));
+		return multiplyParallel(outer, inner, Math.max(blockSize, 1)).toNode();
+	}
+
+	/**
+	 * Returns the product of two polynomials, like multiply(Node, Node), computed in
+	 * parallel on the common fork-join pool. The terms of poly1 are cut into blocks of
+	 * at most blockSize terms, and each block is multiplied by all of poly2 in its own
+	 * task, with a private accumulator in double: dense blocks by Karatsuba's method,
+	 * sparse ones by merging rows of partial products. Partial products are merged by
+	 * degree in double, and rounded to float once. With integer coefficients, and the
+	 * product of the sums of their absolute values below 2^53, every partial sum is exact,
+	 * so the result is the exact product rounded to float whatever the block size and the
+	 * number of threads. multiply then computes the exact product as well, keeping such
+	 * operands off the FFT (see Convolution), so both return the same polynomial.
+	 *
+	 * @param poly1 First input polynomial (front of polynomial linked list), split into blocks
+	 * @param poly2 Second input polynomial (front of polynomial linked list)
+	 * @param blockSize Number of terms of poly1 below which a task is not split further
+	 * @return A new polynomial which is the product of the input polynomials
+	 * @throws IllegalArgumentException If blockSize is not positive
+	 */
+	public static Node multiplyParallel(Node poly1, Node poly2, int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("Block size must be positive");
+		}
+		return multiplyParallel(TermArrays.of(poly1), TermArrays.of(poly2), blockSize).toNode();
+	}
+
+	private static TermArrays multiplyParallel(TermArrays outer, TermArrays inner, int blockSize) {
+		if (outer.size == 0 || inner.size == 0) {
+			return new TermArrays(0);
+		}
+		return ForkJoinPool.commonPool().invoke(new MultiplyTask(outer, inner, 0, outer.size, blockSize)).toTerms();
+	}
+
+	/**
+	 * Multiplies two polynomials given as term arrays in ascending order of degrees, through
+	 * DensePolynomial if both are dense, or else by merging partial products.
+	 * 
+	 * @param a First operand, ascending degrees
+	 * @param b Second operand, ascending degrees
+	 * @return Product, ascending degrees, with zero terms dropped
+	 * @throws ArithmeticException If a degree of the product overflows an int
+	 */
+	static TermArrays multiply(TermArrays a, TermArrays b) {
+		if (DensePolynomial.isDense(a) && DensePolynomial.isDense(b)) {
+			return DensePolynomial.multiply(DensePolynomial.of(a), DensePolynomial.of(b)).toTerms();
+		}
+		return multiplySparse(a, b);
+	}
+
+	/**
+	 * Multiplies two polynomials given as term arrays in ascending order of degrees.
+	 * Each term of the shorter operand, times the whole longer operand, is a row of
+	 * partial products that is itself in ascending order. The rows are merged with a
+	 * min-heap keyed on degree, so products of equal degree come out together and are
+	 * summed in one pass, without building any intermediate polynomial.
+	 * 
+	 * @param a First operand, ascending degrees
+	 * @param b Second operand, ascending degrees
+	 * @return Product, ascending degrees, with zero terms dropped
+	 * @throws ArithmeticException If a degree of the product overflows an int
+	 */
+	static TermArrays multiplySparse(TermArrays a, TermArrays b) {
+		if (a.size > b.size) {
+			TermArrays swap = a;
+			a = b;
+			b = swap;
+		}
+		TermArrays product = new TermArrays(a.size + b.size);
+		if (a.size == 0) {
+			return product;
+		}
+		int rows = a.size;
+		int[] heap = new int[rows];
+		int[] key = new int[rows];
+		int[] cursor = new int[rows];
+		for (int row = 0; row < rows; row++) {
+			heap[row] = row;
+			key[row] = Math.addExact(a.degrees[row], b.degrees[0]);
+		}
+		for (int i = rows / 2 - 1; i >= 0; i--) {
+			siftDown(heap, key, rows, i);
+		}
+		int heapSize = rows;
+		while (heapSize > 0) {
+			int degree = key[heap[0]];
+			double coeff = 0;
+			while (heapSize > 0 && key[heap[0]] == degree) {
+				int row = heap[0];
+				coeff += (double) a.coeffs[row] * b.coeffs[cursor[row]];
+				if (++cursor[row] < b.size) {
+					key[row] = Math.addExact(a.degrees[row], b.degrees[cursor[row]]);
+				} else {
+					heap[0] = heap[--heapSize];
+				}
+				siftDown(heap, key, heapSize, 0);
+			}
+			if ((float) coeff != 0) {
+				product.append((float) coeff, degree);
+			}
+		}
+		return product;
+	}
+
+	static void siftDown(int[] heap, int[] key, int size, int i) {
+		int item = heap[i];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && key[heap[child + 1]] < key[heap[child]]) {
+				child++;
+			}
+			if (key[heap[child]] >= key[item]) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = item;
+	}
+
+	/**
+	 * Returns the quotient of dividing one polynomial by another - DOES NOT change either of
+	 * the input polynomials. The returned polynomial has all new nodes. When both quotient
+	 * and divisor are long, the quotient is computed with a power series inverse of the
+	 * reversed divisor by Newton iteration, so division costs a few fast multiplications;
+	 * otherwise it is done term by term. Arithmetic is in double.
+	 *
+	 * @param poly1 Dividend (front of polynomial linked list)
+	 * @param poly2 Divisor (front of polynomial linked list)
+	 * @return A new polynomial which is the quotient, in ascending order of degrees
+	 * @throws ArithmeticException If poly2 is the zero polynomial
+	 * @throws IllegalArgumentException If either input has a term of negative degree
+	 */
+	public static Node divide(Node poly1, Node poly2) {
+		return PolyMath.toNode(PolyMath.divide(PolyMath.of(TermArrays.of(poly1)), PolyMath.of(TermArrays.of(poly2)))[0]);
+	}
+
+	/**
+	 * Returns the remainder of dividing one polynomial by another, with degree less than
+	 * that of the divisor - DOES NOT change either of the input polynomials. The returned
+	 * polynomial has all new nodes. See divide.
+	 *
+	 * @param poly1 Dividend (front of polynomial linked list)
+	 * @param poly2 Divisor (front of polynomial linked list)
+	 * @return A new polynomial which is the remainder, in ascending order of degrees
+	 * @throws ArithmeticException If poly2 is the zero polynomial
+	 * @throws IllegalArgumentException If either input has a term of negative degree
+	 */
+	public static Node remainder(Node poly1, Node poly2) {
+		return PolyMath.toNode(PolyMath.remainder(PolyMath.of(TermArrays.of(poly1)), PolyMath.of(TermArrays.of(poly2))));
+	}
+
+	/**
+	 * Returns the greatest common divisor of two polynomials - DOES NOT change either of the
+	 * input polynomials. The returned polynomial has all new nodes. If all coefficients are
+	 * integers, the gcd is exact (by a modular algorithm), has integer coefficients and a
+	 * positive leading coefficient; otherwise it is computed by Euclid's algorithm with a
+	 * tolerance for rounding, and is monic.
+	 *
+	 * @param poly1 First input polynomial (front of polynomial linked list)
+	 * @param poly2 Second input polynomial (front of polynomial linked list)
+	 * @return A new polynomial which is the gcd, null if both inputs are zero
+	 * @throws IllegalArgumentException If either input has a term of negative degree
+	 */
+	public static Node gcd(Node poly1, Node poly2) {
+		return PolyMath.toNode(PolynomialGcd.gcd(PolyMath.of(TermArrays.of(poly1)), PolyMath.of(TermArrays.of(poly2))));
+	}
+
+	/**
+	 * Returns a polynomial raised to a power - DOES NOT change the input polynomial. The
+	 * returned polynomial has all new nodes. A monomial or binomial is expanded directly,
+	 * term by term from the binomial theorem; any other polynomial by repeated squaring,
+	 * so only about 2*log2(exponent) multiplications are done.
+	 *
+	 * @param poly Polynomial (front of linked list), in ascending order of degrees
+	 * @param exponent Exponent, at least 0
+	 * @return A new polynomial which is poly^exponent, in ascending order of degrees
+	 * @throws IllegalArgumentException If exponent is negative
+	 * @throws ArithmeticException If a degree of the result overflows an int
+	 */
+	public static Node pow(Node poly, int exponent) {
+		if (exponent < 0) {
+			throw new IllegalArgumentException("Negative exponent " + exponent);
+		}
+		return pow(TermArrays.of(poly), exponent).toNode();
+	}
+
+	/**
+	 * Raises a polynomial given as a term array in ascending order of degrees to a power.
+	 *
+	 * @param base Base, ascending degrees
+	 * @param exponent Exponent, at least 0
+	 * @return Power, ascending degrees
+	 * @throws ArithmeticException If a degree of the power overflows an int
+	 */
+	static TermArrays pow(TermArrays base, int exponent) {
+		if (exponent == 0) {
+			TermArrays one = new TermArrays(1);
+			one.append(1, 0);
+			return one;
+		}
+		if (base.size <= 2) {
+			return binomialPow(base, exponent);
+		}
+		TermArrays result = null;
+		while (true) {
+			if ((exponent & 1) != 0) {
+				result = result == null ? base : multiply(result, base);
+			}
+			exponent >>>= 1;
+			if (exponent == 0) {
+				return result;
+			}
+			base = multiply(base, base);
+		}
+	}
+
+	/**
+	 * Expands (a x^i + b x^j)^k, i < j, as the sum over m of C(k,m) a^(k-m) b^m x^(i(k-m)+jm),
+	 * which is in ascending order of degrees. Coefficients are computed in double from
+	 * C(k,m+1) = C(k,m) (k-m)/(m+1) and tables of powers of a and b, which is exact for small
+	 * integers; a coefficient whose factors overflow or underflow double on the way is
+	 * computed from logarithms instead. A base with fewer than two terms is a monomial or
+	 * zero.
+	 */
+	private static TermArrays binomialPow(TermArrays base, int k) {
+		TermArrays result = new TermArrays(base.size == 2 ? k + 1 : 1);
+		if (base.size == 0) {
+			return result;
+		}
+		if (base.size == 1) {
+			result.append((float) power(base.coeffs[0], k), Math.multiplyExact(base.degrees[0], k));
+			return result;
+		}
+		double a = base.coeffs[0], b = base.coeffs[1];
+		double[] powersA = powers(a, k), powersB = powers(b, k);
+		double logA = Math.log(Math.abs(a)), logB = Math.log(Math.abs(b));
+		int low = Math.multiplyExact(base.degrees[0], k), high = Math.multiplyExact(base.degrees[1], k);
+		int step = base.degrees[1] - base.degrees[0];
+		double binomial = 1, logBinomial = 0;
+		for (int m = 0; m <= k; m++) {
+			double coeff = binomial * powersA[k - m] * powersB[m];
+			if (a != 0 && b != 0 && !(coeff != 0 && Math.abs(coeff) <= Double.MAX_VALUE)) {
+				double magnitude = Math.exp(logBinomial + (k - m) * logA + m * logB);
+				boolean negative = (a < 0 && ((k - m) & 1) != 0) ^ (b < 0 && (m & 1) != 0);
+				coeff = negative ? -magnitude : magnitude;
+			}
+			if ((float) coeff != 0) {
+				result.append((float) coeff, m == k ? high : low + m * step);
+			}
+			binomial = binomial * (k - m) / (m + 1);
+			logBinomial += Math.log(k - m) - Math.log(m + 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns x^0, x^1, ..., x^n.
+	 */
+	private static double[] powers(double x, int n) {
+		double[] powers = new double[n + 1];
+		powers[0] = 1;
+		for (int i = 1; i <= n; i++) {
+			powers[i] = powers[i - 1] * x;
+		}
+		return powers;
+	}
+
+	/**
+	 * Returns the composition p(q(x)) of two polynomials - DOES NOT change either of the
+	 * input polynomials. The returned polynomial has all new nodes. The terms of p are
+	 * split in halves, p = low + x^g high, and p(q) = low(q) + q^g high(q) is computed
+	 * recursively, so the work is a logarithmic number of levels of fast multiplications
+	 * instead of one multiplication per degree of p. Powers q^g are computed once each, by
+	 * repeated squaring, so sparse p of high degree costs no more than its number of terms.
+	 *
+	 * @param p Outer polynomial (front of linked list), in ascending order of degrees
+	 * @param q Inner polynomial (front of linked list), in ascending order of degrees
+	 * @return A new polynomial which is p(q(x)), in ascending order of degrees
+	 * @throws IllegalArgumentException If p has a term of negative degree
+	 * @throws ArithmeticException If a degree of the result overflows an int
+	 */
+	public static Node compose(Node p, Node q) {
+		TermArrays outer = TermArrays.of(p);
+		if (outer.size == 0) {
+			return null;
+		}
+		if (outer.degrees[0] < 0) {
+			throw new IllegalArgumentException("Negative degree " + outer.degrees[0]);
+		}
+		TermArrays inner = TermArrays.of(q);
+		Map<Integer, TermArrays> powers = new HashMap<Integer, TermArrays>();
+		TermArrays result = compose(outer, 0, outer.size, inner, powers);
+		return multiply(result, power(inner, outer.degrees[0], powers)).toNode();
+	}
+
+	/**
+	 * Returns the sum of the terms of p in [from,to), with degrees lowered by that of
+	 * term from, composed with q.
+	 */
+	private static TermArrays compose(TermArrays p, int from, int to, TermArrays q,
+			Map<Integer, TermArrays> powers) {
+		if (to - from == 1) {
+			TermArrays constant = new TermArrays(1);
+			constant.append(p.coeffs[from], 0);
+			return constant;
+		}
+		int middle = (from + to) >>> 1;
+		TermArrays low = compose(p, from, middle, q, powers);
+		TermArrays high = compose(p, middle, to, q, powers);
+		return TermArrays.add(low, multiply(power(q, p.degrees[middle] - p.degrees[from], powers), high));
+	}
+
+	private static TermArrays power(TermArrays q, int exponent, Map<Integer, TermArrays> powers) {
+		TermArrays power = powers.get(exponent);
+		if (power == null) {
+			power = pow(q, exponent);
+			powers.put(exponent, power);
+		}
+		return power;
+	}
+
+	/**
+	 * Evaluates a polynomial at a given value. The terms are visited once, in list
+	 * (ascending degree) order, and the power of x for each term is obtained from the
+	 * power for the previous term, so there is no call to Math.pow. Powers and the sum
+	 * are kept in double, and the result is rounded to float at the end.
+	 * 
+	 * @param poly Polynomial (front of linked list) to be evaluated
+	 * @param x Value at which evaluation is to be done
+	 * @return Value of polynomial p at x
+	 */
+	public static float evaluate(Node poly, float x) {
+		double solution = 0;
+		double power = 1;
+		int degree = 0;
+		for (Node current = poly; current != null; current = current.next) {
+			int gap = current.term.degree - degree;
+			if (gap == 1) {
+				power *= x;
+			} else if (gap != 0) {
+				power *= power(x, gap);
+			}
+			degree = current.term.degree;
+			solution += current.term.coeff * power;
+		}
+		return (float) solution;
+	}
+
+	/**
+	 * Evaluates a polynomial at each of the given values. The terms are copied once into
+	 * primitive arrays and evaluated by Horner's scheme, in double. The points are processed
+	 * in blocks, with the terms in the outer loop and the points in the inner loop, so that
+	 * the inner loop is a simple array loop the JIT can vectorize. Results agree with
+	 * evaluate(poly, x) up to float rounding.
+	 * 
+	 * @param poly Polynomial (front of linked list) to be evaluated
+	 * @param xs Values at which evaluation is to be done
+	 * @param out Array that receives the values of poly at xs, at least as long as xs
+	 * @throws IllegalArgumentException If out is shorter than xs
+	 */
+	public static void evaluate(Node poly, float[] xs, float[] out) {
+		if (out.length < xs.length) {
+			throw new IllegalArgumentException("Output array is shorter than input array");
+		}
+		evaluate(TermArrays.of(poly), xs, out, 0, xs.length);
+	}
+
+	/**
+	 * Default number of points below which evaluateParallel stops splitting the work.
+	 */
+	public static final int PARALLEL_SPLIT_SIZE = 1 << 15;
+
+	/**
+	 * Evaluates a polynomial at each of the given values, in parallel on the common
+	 * fork-join pool, splitting the points into ranges of at most PARALLEL_SPLIT_SIZE.
+	 * Results are identical to those of evaluate(poly, xs, out).
+	 * 
+	 * @param poly Polynomial (front of linked list) to be evaluated
+	 * @param xs Values at which evaluation is to be done
+	 * @param out Array that receives the values of poly at xs, at least as long as xs
+	 * @throws IllegalArgumentException If out is shorter than xs
+	 */
+	public static void evaluateParallel(Node poly, float[] xs, float[] out) {
+		evaluateParallel(poly, xs, out, PARALLEL_SPLIT_SIZE);
+	}
+
+	/**
+	 * Evaluates a polynomial at each of the given values, in parallel on the common
+	 * fork-join pool. The terms are copied once into primitive arrays shared by all tasks,
+	 * and each point is computed exactly as in evaluate(poly, xs, out), so the results are
+	 * identical whatever the split size and the number of threads.
+	 * 
+	 * @param poly Polynomial (front of linked list) to be evaluated
+	 * @param xs Values at which evaluation is to be done
+	 * @param out Array that receives the values of poly at xs, at least as long as xs
+	 * @param splitSize Number of points below which a task is not split further
+	 * @throws IllegalArgumentException If out is shorter than xs, or splitSize is not positive
+	 */
+	public static void evaluateParallel(Node poly, float[] xs, float[] out, int splitSize) {
+		if (out.length < xs.length) {
+			throw new IllegalArgumentException("Output array is shorter than input array");
+		}
+		if (splitSize < 1) {
+			throw new IllegalArgumentException("Split size must be positive");
+		}
+		ForkJoinPool.commonPool().invoke(new EvaluateTask(TermArrays.of(poly), xs, out, 0, xs.length, splitSize));
+	}
+
+	/**
+	 * Number of points evaluated together by the batch evaluation loops.
+	 */
+	static final int EVALUATION_BLOCK = 1024;
+
+	/**
+	 * Evaluates a polynomial, given as term arrays in ascending order of degrees, at
+	 * xs[from..to), into out[from..to).
+	 */
+	static void evaluate(TermArrays terms, float[] xs, float[] out, int from, int to) {
+		double[] solution = new double[Math.min(EVALUATION_BLOCK, to - from)];
+		for (int start = from; start < to; start += EVALUATION_BLOCK) {
+			int length = Math.min(EVALUATION_BLOCK, to - start);
+			evaluate(terms, xs, start, length, solution);
+			for (int i = 0; i < length; i++) {
+				out[start + i] = (float) solution[i];
+			}
+		}
+	}
+
+	/**
+	 * Evaluates a polynomial, given as term arrays in ascending order of degrees, at
+	 * xs[start..start+length) by Horner's scheme, into solution[0..length) in double.
+	 */
+	static void evaluate(TermArrays terms, float[] xs, int start, int length, double[] solution) {
+		if (terms.size == 0) {
+			for (int i = 0; i < length; i++) {
+				solution[i] = 0;
+			}
+			return;
+		}
+		double top = terms.coeffs[terms.size - 1];
+		for (int i = 0; i < length; i++) {
+			solution[i] = top;
+		}
+		for (int t = terms.size - 2; t >= 0; t--) {
+			int gap = terms.degrees[t + 1] - terms.degrees[t];
+			double coeff = terms.coeffs[t];
+			if (gap == 1) {
+				for (int i = 0; i < length; i++) {
+					solution[i] = solution[i] * xs[start + i] + coeff;
+				}
+			} else {
+				for (int i = 0; i < length; i++) {
+					solution[i] = solution[i] * power(xs[start + i], gap) + coeff;
+				}
+			}
+		}
+		int lowest = terms.degrees[0];
+		if (lowest != 0) {
+			for (int i = 0; i < length; i++) {
+				solution[i] *= power(xs[start + i], lowest);
+			}
+		}
+	}
+
+	/**
+	 * Computes x^n by repeated squaring, in double.
+	 */
+	static double power(double x, int n) {
+		if (n < 0) {
+			return 1 / power(x, -n);
+		}
+		double result = 1;
+		while (n > 0) {
+			if ((n & 1) != 0) {
+				result *= x;
+			}
+			x *= x;
+			n >>>= 1;
+		}
+		return result;
+	}
+
+	public static float evaluateNode(Node poly, float x) {
+		return (float) (poly.term.coeff * power(x, poly.term.degree));
+	}
+	
+	/**
+	 * Returns string representation of a polynomial
+	 * 
+	 * @param poly Polynomial (front of linked list)
+	 * @return String representation, in descending order of degrees
+	 */
+	public static String toString(Node poly) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			write(poly, sb);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes the string representation of a polynomial (see toString) to a writer.
+	 * 
+	 * @param poly Polynomial (front of linked list)
+	 * @param out Writer to which the representation is written
+	 * @throws IOException If there is any error in writing
+	 */
+	public static void write(Node poly, Writer out) 
+	throws IOException {
+		write(poly, (Appendable) out);
+	}
+
+	/**
+	 * Writes the string representation of a polynomial (see toString) to an output, term
+	 * by term, without building the whole string. The list is cut into segments of about
+	 * sqrt(n) nodes whose fronts are remembered on a first pass; the segments are then
+	 * written last to first, each one reversed through a small primitive buffer. Extra
+	 * memory is O(sqrt(n)), time is O(n), and the input list is not changed.
+	 * 
+	 * @param poly Polynomial (front of linked list)
+	 * @param out Output to which the representation is appended
+	 * @throws IOException If there is any error in writing
+	 */
+	public static void write(Node poly, Appendable out) 
+	throws IOException {
+		if (poly == null) {
+			out.append('0');
+			return;
+		}
+		int count = 0;
+		for (Node current = poly; current != null; current = current.next) {
+			count++;
+		}
+		int segment = Math.max(64, (int) Math.sqrt(count));
+		Node[] fronts = new Node[(count + segment - 1) / segment];
+		int index = 0;
+		for (Node current = poly; current != null; current = current.next, index++) {
+			if (index % segment == 0) {
+				fronts[index / segment] = current;
+			}
+		}
+		float[] coeffs = new float[segment];
+		int[] degrees = new int[segment];
+		boolean first = true;
+		for (int s = fronts.length - 1; s >= 0; s--) {
+			int length = 0;
+			for (Node current = fronts[s]; current != null && length < segment; current = current.next) {
+				coeffs[length] = current.term.coeff;
+				degrees[length] = current.term.degree;
+				length++;
+			}
+			for (int i = length - 1; i >= 0; i--) {
+				if (!first) {
+					out.append(" + ");
+				}
+				appendTerm(out, coeffs[i], degrees[i]);
+				first = false;
+			}
+		}
+	}
+
+	/**
+	 * Appends a term as Term.toString would represent it.
+	 */
+	private static void appendTerm(Appendable out, float coeff, int degree) 
+	throws IOException {
+		out.append(Float.toString(coeff));
+		if (degree == 1) {
+			out.append('x');
+		} else if (degree != 0) {
+			out.append("x^").append(Integer.toString(degree));
+		}
+	}
+}
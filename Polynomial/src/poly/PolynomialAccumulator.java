@@ -0,0 +1,221 @@
+package poly;
+
+import java.util.Arrays;
+
+/**
+ * This class accumulates a running polynomial, such as a sum of products q1*r1 + q2*r2 + ...,
+ * in a mutable primitive buffer of coefficients indexed by degree. Products and sums are
+ * added straight into the buffer, so no intermediate linked list is built until toNodeList
+ * is called. Coefficients are accumulated in double and rounded to float on output.
+ * Degrees must not be negative. The buffer only grows to cover new degrees when they are
+ * not much more spread out than the terms that reach them; terms of higher degree, as
+ * from sparse operands of large degree, are accumulated in a primitive hash map instead.
+ *
+ * @author runb-cs112
+ *
+ */
+public class PolynomialAccumulator {
+
+	/**
+	 * Coefficients accumulated so far, indexed by degree.
+	 */
+	private double[] coeffs;
+
+	/**
+	 * One more than the highest degree touched so far in the buffer.
+	 */
+	private int length;
+
+	/**
+	 * Coefficients of degrees at or above the capacity of the buffer, by degree, null if
+	 * there are none.
+	 */
+	private IntDoubleMap sparse;
+
+	/**
+	 * Largest number of new degrees per term for which the buffer is grown.
+	 */
+	static final int MAX_SPAN_PER_TERM = 16;
+
+	/**
+	 * Largest length of the buffer.
+	 */
+	private static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Initializes this accumulator to the zero polynomial.
+	 */
+	public PolynomialAccumulator() {
+		coeffs = new double[16];
+		length = 0;
+	}
+
+	/**
+	 * Adds a polynomial to the running polynomial. DOES NOT change the input.
+	 *
+	 * @param p Polynomial (front of linked list) to add
+	 * @throws IllegalArgumentException If p has a term of negative degree
+	 */
+	public void add(Node p) {
+		int terms = 0, max = 0;
+		for (Node current = p; current != null; current = current.next) {
+			max = Math.max(max, checkDegree(current.term.degree));
+			terms++;
+		}
+		reserve(max + 1L, terms);
+		for (Node current = p; current != null; current = current.next) {
+			add(current.term.degree, current.term.coeff);
+		}
+	}
+
+	/**
+	 * Adds the product of two polynomials to the running polynomial. DOES NOT change either
+	 * of the inputs. Dense operands long enough for Karatsuba's method or the FFT (see
+	 * DensePolynomial) are multiplied through Convolution if their product fits in the
+	 * buffer; others term by term, straight into the buffer or the sparse map.
+	 *
+	 * @param q First factor (front of linked list)
+	 * @param r Second factor (front of linked list)
+	 * @throws IllegalArgumentException If q or r has a term of negative degree
+	 */
+	public void addProduct(Node q, Node r) {
+		if (q == null || r == null) {
+			return;
+		}
+		TermArrays a = TermArrays.of(q);
+		TermArrays b = TermArrays.of(r);
+		int maxA = maxDegree(a), maxB = maxDegree(b);
+		boolean fits = reserve(Math.addExact((long) maxA, maxB) + 1, (long) a.size * b.size);
+		if (fits && Math.min(a.size, b.size) >= DensePolynomial.KARATSUBA_THRESHOLD
+				&& DensePolynomial.isDense(a) && DensePolynomial.isDense(b)) {
+			double[] product = Convolution.multiply(dense(a, maxA), dense(b, maxB));
+			for (int i = 0; i < product.length; i++) {
+				coeffs[i] += product[i];
+			}
+			return;
+		}
+		for (int i = 0; i < a.size; i++) {
+			double ai = a.coeffs[i];
+			int di = a.degrees[i];
+			for (int j = 0; j < b.size; j++) {
+				add(Math.addExact(di, b.degrees[j]), ai * b.coeffs[j]);
+			}
+		}
+	}
+
+	/**
+	 * Resets the running polynomial to zero, keeping the buffer for reuse.
+	 */
+	public void clear() {
+		Arrays.fill(coeffs, 0, length, 0);
+		length = 0;
+		sparse = null;
+	}
+
+	/**
+	 * Builds a new polynomial linked list with the non-zero terms of the running polynomial,
+	 * in ascending order of degrees. The accumulator is not changed.
+	 *
+	 * @return Front of the new linked list, null for the zero polynomial
+	 */
+	public Node toNodeList() {
+		Node front = null;
+		if (sparse != null) {
+			int[] degrees = sparse.sortedKeys();
+			for (int i = degrees.length - 1; i >= 0; i--) {
+				float coeff = (float) sparse.get(degrees[i]);
+				if (coeff != 0) {
+					front = new Node(coeff, degrees[i], front);
+				}
+			}
+		}
+		for (int degree = length - 1; degree >= 0; degree--) {
+			float coeff = (float) coeffs[degree];
+			if (coeff != 0) {
+				front = new Node(coeff, degree, front);
+			}
+		}
+		return front;
+	}
+
+	private static int checkDegree(int degree) {
+		if (degree < 0) {
+			throw new IllegalArgumentException("Negative degree " + degree);
+		}
+		return degree;
+	}
+
+	private static int maxDegree(TermArrays terms) {
+		int max = 0;
+		for (int i = 0; i < terms.size; i++) {
+			max = Math.max(max, checkDegree(terms.degrees[i]));
+		}
+		return max;
+	}
+
+	private static double[] dense(TermArrays terms, int maxDegree) {
+		double[] values = new double[maxDegree + 1];
+		for (int i = 0; i < terms.size; i++) {
+			values[terms.degrees[i]] += terms.coeffs[i];
+		}
+		return values;
+	}
+
+	/**
+	 * Makes room in the buffer for degrees below needed, reached by the given number of
+	 * terms, if the buffer already covers them or they are not much more spread out than
+	 * the terms; otherwise the degrees beyond the buffer go to the sparse map.
+	 *
+	 * @return True if the buffer covers all degrees below needed
+	 */
+	private boolean reserve(long needed, long terms) {
+		if (needed > coeffs.length) {
+			if (needed > MAX_LENGTH || needed - length > MAX_SPAN_PER_TERM * terms) {
+				return false;
+			}
+			coeffs = Arrays.copyOf(coeffs, (int) Math.min(MAX_LENGTH, Math.max(needed, 2L * coeffs.length)));
+			moveSparse();
+		}
+		length = (int) Math.max(length, needed);
+		return true;
+	}
+
+	private void add(int degree, double coeff) {
+		if (degree < coeffs.length) {
+			coeffs[degree] += coeff;
+			length = Math.max(length, degree + 1);
+		} else {
+			if (sparse == null) {
+				sparse = new IntDoubleMap(16);
+			}
+			sparse.add(degree, coeff);
+		}
+	}
+
+	/**
+	 * Moves the terms of the sparse map that the buffer now covers into the buffer, and
+	 * copies the terms that remain into a new map.
+	 */
+	private void moveSparse() {
+		if (sparse == null) {
+			return;
+		}
+		IntDoubleMap remaining = null;
+		for (int slot = 0; slot < sparse.capacity(); slot++) {
+			if (!sparse.isUsed(slot)) {
+				continue;
+			}
+			int degree = sparse.keyAt(slot);
+			if (degree < coeffs.length) {
+				coeffs[degree] += sparse.valueAt(slot);
+				length = Math.max(length, degree + 1);
+			} else {
+				if (remaining == null) {
+					remaining = new IntDoubleMap(sparse.size());
+				}
+				remaining.add(degree, sparse.valueAt(slot));
+			}
+		}
+		sparse = remaining;
+	}
+}
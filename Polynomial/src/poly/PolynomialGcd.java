@@ -0,0 +1,265 @@
+package poly;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * This class computes greatest common divisors of polynomials given as double coefficient
+ * arrays indexed by degree.
+ * <p>
+ * When all coefficients are integers the gcd is computed exactly, by the modular
+ * algorithm: the gcd is taken modulo a sequence of word-sized primes by Euclid's algorithm,
+ * with its leading coefficient fixed to gcd(lc(a),lc(b)), and the images are combined by
+ * Chinese remaindering (in BigInteger) until they stop changing and the candidate divides
+ * both inputs exactly. Primes whose image has too high a degree are unlucky and skipped.
+ * The result has integer coefficients and a positive leading coefficient.
+ * <p>
+ * Otherwise the gcd is computed by Euclid's algorithm in double, with remainders made
+ * monic at each step and treated as zero once they are below TOLERANCE relative to the
+ * operands. The result is monic.
+ *
+ * @author runb-cs112
+ *
+ */
+final class PolynomialGcd {
+
+	/**
+	 * Relative size below which a remainder counts as zero in the floating-point algorithm.
+	 */
+	static final double TOLERANCE = 1e-5;
+
+	private PolynomialGcd() {
+	}
+
+	/**
+	 * Returns the gcd of a and b, empty if both are zero.
+	 */
+	static double[] gcd(double[] a, double[] b) {
+		a = PolyMath.trim(a);
+		b = PolyMath.trim(b);
+		BigInteger[] integerA = toIntegers(a), integerB = toIntegers(b);
+		if (integerA != null && integerB != null) {
+			BigInteger[] gcd = integerGcd(integerA, integerB);
+			double[] result = new double[gcd.length];
+			for (int i = 0; i < gcd.length; i++) {
+				result[i] = gcd[i].doubleValue();
+			}
+			return result;
+		}
+		return floatGcd(a, b);
+	}
+
+	/**
+	 * Returns the monic gcd of a and b by Euclid's algorithm in double, empty if both are
+	 * zero.
+	 */
+	static double[] floatGcd(double[] a, double[] b) {
+		if (a.length == 0) {
+			return monic(b);
+		}
+		a = monic(a);
+		b = monic(b);
+		while (b.length > 0) {
+			double[] remainder = PolyMath.remainder(a, b);
+			double scale = Math.max(maxAbs(a), maxAbs(b));
+			a = b;
+			b = maxAbs(remainder) <= TOLERANCE * scale ? new double[0] : monic(remainder);
+		}
+		return a;
+	}
+
+	private static double[] monic(double[] a) {
+		if (a.length == 0) {
+			return a;
+		}
+		double lead = a[a.length - 1];
+		double[] monic = new double[a.length];
+		for (int i = 0; i < a.length; i++) {
+			monic[i] = a[i] / lead;
+		}
+		monic[a.length - 1] = 1;
+		return monic;
+	}
+
+	private static double maxAbs(double[] a) {
+		double max = 0;
+		for (double coeff : a) {
+			max = Math.max(max, Math.abs(coeff));
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the coefficients of a as integers, or null if any of them is not an integer.
+	 */
+	private static BigInteger[] toIntegers(double[] a) {
+		BigInteger[] integers = new BigInteger[a.length];
+		for (int i = 0; i < a.length; i++) {
+			if (Double.isInfinite(a[i]) || a[i] != Math.rint(a[i])) {
+				return null;
+			}
+			integers[i] = new BigDecimal(a[i]).toBigInteger();
+		}
+		return integers;
+	}
+
+	/**
+	 * Returns the gcd of two trimmed integer polynomials, with positive leading coefficient.
+	 */
+	static BigInteger[] integerGcd(BigInteger[] a, BigInteger[] b) {
+		if (a.length == 0 || b.length == 0) {
+			return positive(a.length == 0 ? b : a);
+		}
+		BigInteger contentA = content(a), contentB = content(b);
+		BigInteger content = contentA.gcd(contentB);
+		a = divide(a, contentA);
+		b = divide(b, contentB);
+		if (a.length == 1 || b.length == 1) {
+			return new BigInteger[] { content };
+		}
+		BigInteger leadA = a[a.length - 1], leadB = b[b.length - 1];
+		BigInteger lead = leadA.gcd(leadB);
+		BigInteger[] candidate = null;
+		BigInteger modulus = null;
+		int degree = Integer.MAX_VALUE;
+		for (long p = ModularPolynomial.MAX_MODULUS; ; p = previousPrime(p)) {
+			BigInteger prime = BigInteger.valueOf(p);
+			if (leadA.mod(prime).signum() == 0 || leadB.mod(prime).signum() == 0) {
+				continue;
+			}
+			long[] image = ModularMath.trim(modularGcd(reduce(a, p), reduce(b, p), p));
+			if (image.length == 1) {
+				return new BigInteger[] { content };
+			}
+			if (image.length - 1 > degree) {
+				continue;
+			}
+			long scale = lead.mod(prime).longValue();
+			for (int i = 0; i < image.length; i++) {
+				image[i] = image[i] * scale % p;
+			}
+			if (image.length - 1 < degree) {
+				degree = image.length - 1;
+				modulus = prime;
+				candidate = new BigInteger[image.length];
+				for (int i = 0; i < image.length; i++) {
+					candidate[i] = symmetric(BigInteger.valueOf(image[i]), modulus);
+				}
+				continue;
+			}
+			BigInteger inverse = modulus.mod(prime).modInverse(prime);
+			BigInteger product = modulus.multiply(prime);
+			boolean changed = false;
+			for (int i = 0; i < image.length; i++) {
+				BigInteger t = BigInteger.valueOf(image[i]).subtract(candidate[i]).multiply(inverse).mod(prime);
+				BigInteger combined = symmetric(candidate[i].add(modulus.multiply(t)), product);
+				changed |= !combined.equals(candidate[i]);
+				candidate[i] = combined;
+			}
+			modulus = product;
+			if (!changed) {
+				BigInteger[] primitive = divide(candidate, content(candidate));
+				if (divides(primitive, a) && divides(primitive, b)) {
+					return positive(multiply(primitive, content));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the monic gcd of a and b modulo a prime p, by Euclid's algorithm.
+	 */
+	static long[] modularGcd(long[] a, long[] b, long p) {
+		a = ModularMath.trim(a);
+		b = ModularMath.trim(b);
+		while (b.length > 0) {
+			long[] remainder = ModularMath.remainder(a, b, p);
+			a = b;
+			b = remainder;
+		}
+		long inverse = NumberTheoreticTransform.inverse(a[a.length - 1], p);
+		for (int i = 0; i < a.length; i++) {
+			a[i] = a[i] * inverse % p;
+		}
+		return a;
+	}
+
+	private static long previousPrime(long p) {
+		do {
+			p -= 2;
+		} while (!BigInteger.valueOf(p).isProbablePrime(30));
+		return p;
+	}
+
+	private static long[] reduce(BigInteger[] a, long p) {
+		BigInteger prime = BigInteger.valueOf(p);
+		long[] reduced = new long[a.length];
+		for (int i = 0; i < a.length; i++) {
+			reduced[i] = a[i].mod(prime).longValue();
+		}
+		return reduced;
+	}
+
+	/**
+	 * Returns the representative of value modulo m in (-m/2, m/2].
+	 */
+	private static BigInteger symmetric(BigInteger value, BigInteger m) {
+		value = value.mod(m);
+		return value.shiftLeft(1).compareTo(m) > 0 ? value.subtract(m) : value;
+	}
+
+	private static BigInteger content(BigInteger[] a) {
+		BigInteger content = BigInteger.ZERO;
+		for (BigInteger coeff : a) {
+			content = content.gcd(coeff);
+		}
+		return content;
+	}
+
+	private static BigInteger[] divide(BigInteger[] a, BigInteger divisor) {
+		BigInteger[] quotient = new BigInteger[a.length];
+		for (int i = 0; i < a.length; i++) {
+			quotient[i] = a[i].divide(divisor);
+		}
+		return quotient;
+	}
+
+	private static BigInteger[] multiply(BigInteger[] a, BigInteger factor) {
+		BigInteger[] product = new BigInteger[a.length];
+		for (int i = 0; i < a.length; i++) {
+			product[i] = a[i].multiply(factor);
+		}
+		return product;
+	}
+
+	private static BigInteger[] positive(BigInteger[] a) {
+		return a.length > 0 && a[a.length - 1].signum() < 0 ? multiply(a, BigInteger.ONE.negate()) : a;
+	}
+
+	/**
+	 * Returns true if h divides a exactly over the integers, by schoolbook division.
+	 */
+	private static boolean divides(BigInteger[] h, BigInteger[] a) {
+		int dh = h.length - 1;
+		BigInteger lead = h[dh];
+		BigInteger[] remainder = Arrays.copyOf(a, a.length);
+		for (int i = a.length - 1 - dh; i >= 0; i--) {
+			BigInteger[] qr = remainder[i + dh].divideAndRemainder(lead);
+			if (qr[1].signum() != 0) {
+				return false;
+			}
+			if (qr[0].signum() != 0) {
+				for (int j = 0; j <= dh; j++) {
+					remainder[i + j] = remainder[i + j].subtract(qr[0].multiply(h[j]));
+				}
+			}
+		}
+		for (int i = 0; i < Math.min(dh, remainder.length); i++) {
+			if (remainder[i].signum() != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
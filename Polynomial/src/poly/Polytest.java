@@ -1,12 +1,16 @@
 package poly;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Scanner;
 
 public class Polytest {
 	static Scanner sc1, sc2;
 	static Node poly1, poly2;
+	static Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
 	
 	public static final int ADD = 1;
 	public static final int MULTIPLY = 2;
@@ -29,9 +33,8 @@ public class Polytest {
 		System.out.print("Enter the file containing the polynomial to add => ");
 		sc2 = new Scanner(new File(sc1.nextLine()));
 		poly2 = Polynomial.read(sc2);
-		System.out.println("\n" + Polynomial.toString(poly2) + "\n");
-		System.out.println("Sum: " + 
-						Polynomial.toString(Polynomial.add(poly1,poly2)) + "\n");
+		print("\n", poly2);
+		print("Sum: ", Polynomial.add(poly1,poly2));
 	}
 	
 	public static void multiply() 
@@ -39,9 +42,8 @@ public class Polytest {
 		System.out.print("Enter the file containing the polynomial to multiply  => ");
 		sc2 = new Scanner(new File(sc1.nextLine()));
 		poly2 = Polynomial.read(sc2);
-		System.out.println("\n" + Polynomial.toString(poly2) + "\n");
-		System.out.println("Product: " + 
-				Polynomial.toString(Polynomial.multiply(poly1,poly2)) + "\n");
+		print("\n", poly2);
+		print("Product: ", Polynomial.multiply(poly1,poly2));
 	}
 	
 	public static void evaluate() 
@@ -51,13 +53,39 @@ public class Polytest {
 		System.out.println("Value at " + x + ": " + Polynomial.evaluate(poly1,x) + "\n");
 	}
 	
+	/**
+	 * Writes a label and a polynomial, followed by a blank line, to standard output.
+	 * 
+	 * @param label Text written before the polynomial
+	 * @param poly Polynomial (front of linked list)
+	 * @throws IOException If there is any error in writing
+	 */
+	public static void print(String label, Node poly) 
+	throws IOException {
+		out.write(label);
+		Polynomial.write(poly, out);
+		out.write("\n\n");
+		out.flush();
+	}
+	
+	/**
+	 * Runs the interactive menu or, if there are arguments, the jobs of a manifest file
+	 * (see PolyBatch).
+	 * 
+	 * @param args None for the menu, or manifest file name and optional number of threads
+	 * @throws IOException If there is any error in reading or writing
+	 */
 	public static void main(String[] args) throws IOException {
+		if (args.length > 0) {
+			PolyBatch.main(args);
+			return;
+		}
 		sc1 = new Scanner(System.in);
 		System.out.print("Enter the name of the polynomial file => ");
 		sc2 = new Scanner(new File(sc1.nextLine()));
 		
 		poly1 = Polynomial.read(sc2);
-		System.out.println("\n" + Polynomial.toString(poly1) + "\n");
+		print("\n", poly1);
 		
 		int choice = getChoice();
 		while (choice != QUIT) {
@@ -0,0 +1,213 @@
+package poly;
+
+/**
+ * This class implements a polynomial stored sparsely, as a hash map from degree to
+ * coefficient (see IntFloatMap). It is meant for polynomials with few terms spread
+ * over a huge range of degrees, such as x^1000000 + x^3 + 1: memory is proportional
+ * to the number of terms rather than the degree, and the coefficient of any degree is
+ * looked up or updated in constant expected time. Terms are not kept in order; toNode
+ * sorts them. Coefficients are added in float, like Polynomial.add.
+ *
+ * @author runb-cs112
+ *
+ */
+public class SparsePolynomial {
+
+	/**
+	 * Non-zero coefficients, keyed by degree.
+	 */
+	private final IntFloatMap terms;
+
+	/**
+	 * Initializes this polynomial to zero.
+	 */
+	public SparsePolynomial() {
+		terms = new IntFloatMap(8);
+	}
+
+	private SparsePolynomial(int expected) {
+		terms = new IntFloatMap(expected);
+	}
+
+	/**
+	 * Builds a sparse polynomial from a polynomial linked list. Terms of equal degree
+	 * are summed.
+	 *
+	 * @param poly Polynomial (front of linked list), in any order of degrees
+	 * @return Sparse polynomial with the same terms
+	 */
+	public static SparsePolynomial fromNode(Node poly) {
+		int count = 0;
+		for (Node current = poly; current != null; current = current.next) {
+			count++;
+		}
+		SparsePolynomial sparse = new SparsePolynomial(count);
+		for (Node current = poly; current != null; current = current.next) {
+			sparse.terms.add(current.term.degree, current.term.coeff);
+		}
+		return sparse;
+	}
+
+	/**
+	 * Builds a new polynomial linked list with the terms of this polynomial, in ascending
+	 * order of degrees.
+	 *
+	 * @return Front of the new linked list, null for the zero polynomial
+	 */
+	public Node toNode() {
+		int[] degrees = terms.sortedKeys();
+		Node front = null;
+		for (int i = degrees.length - 1; i >= 0; i--) {
+			front = new Node(terms.get(degrees[i]), degrees[i], front);
+		}
+		return front;
+	}
+
+	/**
+	 * Returns the number of non-zero terms of this polynomial.
+	 *
+	 * @return Number of terms
+	 */
+	public int size() {
+		return terms.size();
+	}
+
+	/**
+	 * Returns the coefficient of the term of given degree.
+	 *
+	 * @param degree Degree
+	 * @return Coefficient, zero if there is no such term
+	 */
+	public float coeff(int degree) {
+		return terms.get(degree);
+	}
+
+	/**
+	 * Sets the coefficient of the term of given degree, removing the term if it is zero.
+	 *
+	 * @param degree Degree
+	 * @param coeff New coefficient
+	 */
+	public void setCoeff(int degree, float coeff) {
+		terms.put(degree, coeff);
+	}
+
+	/**
+	 * Adds a term to this polynomial.
+	 *
+	 * @param coeff Coefficient of the term
+	 * @param degree Degree of the term
+	 */
+	public void addTerm(float coeff, int degree) {
+		terms.add(degree, coeff);
+	}
+
+	/**
+	 * Adds a polynomial to this one. DOES NOT change the input.
+	 *
+	 * @param poly Polynomial to add
+	 */
+	public void accumulate(SparsePolynomial poly) {
+		IntFloatMap other = poly.terms;
+		if (other == terms) {
+			other = copy(other);
+		}
+		for (int i = 0; i < other.capacity(); i++) {
+			if (other.isUsed(i)) {
+				terms.add(other.keyAt(i), other.valueAt(i));
+			}
+		}
+	}
+
+	/**
+	 * Adds the product of two polynomials to this one, term by term. DOES NOT change
+	 * either of the inputs.
+	 *
+	 * @param poly1 First factor
+	 * @param poly2 Second factor
+	 * @throws ArithmeticException If the degree of a term of the product overflows an int;
+	 * the terms added before the overflow are left in this polynomial
+	 */
+	public void accumulateProduct(SparsePolynomial poly1, SparsePolynomial poly2) {
+		IntFloatMap a = poly1.terms, b = poly2.terms;
+		if (a == terms) {
+			a = copy(a);
+		}
+		if (b == terms) {
+			b = copy(b);
+		}
+		for (int i = 0; i < a.capacity(); i++) {
+			if (!a.isUsed(i)) {
+				continue;
+			}
+			int degree = a.keyAt(i);
+			float coeff = a.valueAt(i);
+			for (int j = 0; j < b.capacity(); j++) {
+				if (b.isUsed(j)) {
+					terms.add(Math.addExact(degree, b.keyAt(j)), coeff * b.valueAt(j));
+				}
+			}
+		}
+	}
+
+	private static IntFloatMap copy(IntFloatMap map) {
+		IntFloatMap copy = new IntFloatMap(map.size());
+		for (int i = 0; i < map.capacity(); i++) {
+			if (map.isUsed(i)) {
+				copy.put(map.keyAt(i), map.valueAt(i));
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the sum of two sparse polynomials - DOES NOT change either of the inputs.
+	 *
+	 * @param poly1 First polynomial
+	 * @param poly2 Second polynomial
+	 * @return A new sparse polynomial which is the sum of the inputs
+	 */
+	public static SparsePolynomial add(SparsePolynomial poly1, SparsePolynomial poly2) {
+		SparsePolynomial sum = new SparsePolynomial(poly1.size() + poly2.size());
+		sum.accumulate(poly1);
+		sum.accumulate(poly2);
+		return sum;
+	}
+
+	/**
+	 * Returns the product of two sparse polynomials - DOES NOT change either of the inputs.
+	 *
+	 * @param poly1 First polynomial
+	 * @param poly2 Second polynomial
+	 * @return A new sparse polynomial which is the product of the inputs
+	 */
+	public static SparsePolynomial multiply(SparsePolynomial poly1, SparsePolynomial poly2) {
+		SparsePolynomial product = new SparsePolynomial((int) Math.min(1 << 16, (long) poly1.size() * poly2.size()));
+		product.accumulateProduct(poly1, poly2);
+		return product;
+	}
+
+	/**
+	 * Evaluates this polynomial at a given value, in double, with each power computed by
+	 * repeated squaring.
+	 *
+	 * @param x Value at which evaluation is to be done
+	 * @return Value of this polynomial at x
+	 */
+	public float evaluate(float x) {
+		double solution = 0;
+		for (int i = 0; i < terms.capacity(); i++) {
+			if (terms.isUsed(i)) {
+				solution += terms.valueAt(i) * Polynomial.power(x, terms.keyAt(i));
+			}
+		}
+		return (float) solution;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return Polynomial.toString(toNode());
+	}
+}
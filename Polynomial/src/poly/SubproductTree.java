@@ -0,0 +1,385 @@
+package poly;
+
+/**
+ * This class implements fast multipoint evaluation and interpolation over a fixed set
+ * of n points, in exact arithmetic modulo a prime m. It builds the subproduct tree of the
+ * points once: each node holds the product of (x - x_i) over the points below it, so the
+ * root holds M(x), the product over all points. Then
+ * <ul>
+ * <li>a polynomial of degree d is evaluated at all points by a remainder tree: it is
+ *     reduced modulo the root, and each remainder modulo the two children, down to small
+ *     leaves that are evaluated by Horner's scheme;</li>
+ * <li>values y_i are interpolated by a Lagrange weight y_i / M'(x_i) for each point
+ *     (M' is evaluated at all points the same way), combined up the tree as
+ *     f = f_left * M_right + f_right * M_left.</li>
+ * </ul>
+ * Products and divisions use number-theoretic transforms and Newton iteration (see
+ * ModularMath), so both take O(M(n) log n) time, against O(n*d) for evaluating point by
+ * point and O(n^2) for Lagrange interpolation.
+ * <p>
+ * The arithmetic is modular rather than float because the tree is numerically unusable in
+ * floating point: the coefficients of M(x) grow exponentially with n (to around 1e29 for
+ * 512 points in [-1,1]), so remainders lose all precision beyond a few hundred points.
+ * Polynomials with float coefficients should be evaluated with Polynomial.evaluate or
+ * Polynomial.evaluateParallel. Polynomial linked lists with integer coefficients, at
+ * integer points, are evaluated and interpolated exactly by evaluate(Node, float[]) and
+ * interpolate(float[], float[]), which work modulo two primes and recover integer results
+ * below 2^61 in magnitude by the Chinese remainder theorem.
+ *
+ * @author runb-cs112
+ *
+ */
+public class SubproductTree {
+
+	/**
+	 * Largest number of points in a leaf of the tree. Leaves are evaluated by Horner's
+	 * scheme and interpolated by synthetic division.
+	 */
+	static final int LEAF_SIZE = 32;
+
+	/**
+	 * Primes modulo which linked lists are evaluated and interpolated, and a third prime
+	 * modulo which interpolated polynomials are checked.
+	 */
+	static final long PRIME1 = 2147483647L, PRIME2 = 2147483629L, CHECK_PRIME = 2147483587L;
+
+	/**
+	 * Bound on the magnitude of integers recovered from their residues modulo PRIME1 and
+	 * PRIME2, below half their product.
+	 */
+	static final double MAX_EXACT = 0x1p61;
+
+	/**
+	 * Inverse of PRIME1 modulo PRIME2.
+	 */
+	private static final long PRIME1_INVERSE = NumberTheoreticTransform.inverse(PRIME1 % PRIME2, PRIME2);
+
+	/**
+	 * Modulus of all arithmetic.
+	 */
+	private final long modulus;
+
+	/**
+	 * Points, reduced into [0,modulus).
+	 */
+	private final long[] points;
+
+	/**
+	 * Products of (x - x_i) over each node, heap-indexed from 1: the children of node k
+	 * are 2k and 2k+1.
+	 */
+	private final long[][] products;
+
+	/**
+	 * Range of points [low[k],high[k]) below node k.
+	 */
+	private final int[] low, high;
+
+	/**
+	 * Lagrange weights 1 / M'(x_i), computed on first interpolation.
+	 */
+	private long[] weights;
+
+	/**
+	 * Builds the subproduct tree of the given points.
+	 *
+	 * @param points Points, reduced modulo m; they must be distinct modulo m to interpolate
+	 * @param modulus Prime modulus m, 2 <= m <= ModularPolynomial.MAX_MODULUS
+	 * @throws IllegalArgumentException If the modulus is out of range
+	 */
+	public SubproductTree(long[] points, long modulus) {
+		if (modulus < 2 || modulus > ModularPolynomial.MAX_MODULUS) {
+			throw new IllegalArgumentException("Modulus " + modulus + " is not in [2,"
+					+ ModularPolynomial.MAX_MODULUS + "]");
+		}
+		this.modulus = modulus;
+		this.points = new long[points.length];
+		for (int i = 0; i < points.length; i++) {
+			long point = points[i] % modulus;
+			this.points[i] = point < 0 ? point + modulus : point;
+		}
+		int leaves = 1;
+		while (leaves * LEAF_SIZE < points.length) {
+			leaves <<= 1;
+		}
+		products = new long[2 * leaves][];
+		low = new int[2 * leaves];
+		high = new int[2 * leaves];
+		if (points.length > 0) {
+			build(1, 0, points.length);
+		}
+	}
+
+	private void build(int node, int from, int to) {
+		low[node] = from;
+		high[node] = to;
+		if (to - from <= LEAF_SIZE) {
+			long[] product = { 1 };
+			for (int i = from; i < to; i++) {
+				product = timesLinear(product, points[i]);
+			}
+			products[node] = product;
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		build(2 * node, from, middle);
+		build(2 * node + 1, middle, to);
+		products[node] = ModularMath.multiply(products[2 * node], products[2 * node + 1], modulus);
+	}
+
+	/**
+	 * Returns p(x) * (x - point).
+	 */
+	private long[] timesLinear(long[] p, long point) {
+		long[] product = new long[p.length + 1];
+		long negated = point == 0 ? 0 : modulus - point;
+		for (int i = 0; i < p.length; i++) {
+			product[i + 1] = (product[i + 1] + p[i]) % modulus;
+			product[i] = (product[i] + negated * p[i]) % modulus;
+		}
+		return product;
+	}
+
+	/**
+	 * Returns the number of points.
+	 *
+	 * @return Number of points
+	 */
+	public int size() {
+		return points.length;
+	}
+
+	/**
+	 * Returns the product of (x - x_i) over all points.
+	 *
+	 * @return M(x), with the modulus of this tree
+	 */
+	public ModularPolynomial product() {
+		return new ModularPolynomial(points.length == 0 ? new long[] { 1 } : products[1], modulus);
+	}
+
+	/**
+	 * Evaluates a polynomial at all points of this tree.
+	 *
+	 * @param poly Polynomial, with the modulus of this tree
+	 * @return Values of poly at the points, in [0,m), in the order of the points
+	 * @throws IllegalArgumentException If the moduli differ
+	 */
+	public long[] evaluate(ModularPolynomial poly) {
+		checkModulus(poly);
+		long[] values = new long[points.length];
+		if (points.length > 0) {
+			evaluate(1, ModularMath.remainder(poly.coeffs, products[1], modulus), values);
+		}
+		return values;
+	}
+
+	private void evaluate(int node, long[] remainder, long[] values) {
+		if (isLeaf(node)) {
+			for (int i = low[node]; i < high[node]; i++) {
+				values[i] = ModularMath.evaluate(remainder, points[i], modulus);
+			}
+			return;
+		}
+		evaluate(2 * node, ModularMath.remainder(remainder, products[2 * node], modulus), values);
+		evaluate(2 * node + 1, ModularMath.remainder(remainder, products[2 * node + 1], modulus), values);
+	}
+
+	/**
+	 * Returns the polynomial of degree less than n that takes the given values at the
+	 * points of this tree.
+	 *
+	 * @param values Values, reduced modulo m, one for each point
+	 * @return Interpolating polynomial, with the modulus of this tree
+	 * @throws IllegalArgumentException If the number of values is not the number of points
+	 * @throws ArithmeticException If two points are equal modulo m
+	 */
+	public ModularPolynomial interpolate(long[] values) {
+		if (values.length != points.length) {
+			throw new IllegalArgumentException(values.length + " values for " + points.length + " points");
+		}
+		if (points.length == 0) {
+			return new ModularPolynomial(new long[0], modulus);
+		}
+		if (weights == null) {
+			long[] derivatives = evaluate(new ModularPolynomial(
+					ModularMath.derivative(products[1], modulus), modulus));
+			long[] inverses = new long[derivatives.length];
+			for (int i = 0; i < derivatives.length; i++) {
+				if (derivatives[i] == 0) {
+					throw new ArithmeticException("Point " + points[i] + " is repeated modulo " + modulus);
+				}
+				inverses[i] = NumberTheoreticTransform.inverse(derivatives[i], modulus);
+			}
+			weights = inverses;
+		}
+		long[] weighted = new long[values.length];
+		for (int i = 0; i < values.length; i++) {
+			long value = values[i] % modulus;
+			weighted[i] = (value < 0 ? value + modulus : value) * weights[i] % modulus;
+		}
+		return new ModularPolynomial(combine(1, weighted), modulus);
+	}
+
+	/**
+	 * Returns the sum over the points i below node of weighted[i] * products[node] / (x - x_i).
+	 */
+	private long[] combine(int node, long[] weighted) {
+		if (isLeaf(node)) {
+			long[] product = products[node];
+			long[] sum = new long[product.length - 1];
+			for (int i = low[node]; i < high[node]; i++) {
+				// synthetic division of the leaf product by (x - x_i)
+				long carry = 0;
+				for (int j = product.length - 1; j > 0; j--) {
+					carry = (carry * points[i] + product[j]) % modulus;
+					sum[j - 1] = (sum[j - 1] + carry * weighted[i]) % modulus;
+				}
+			}
+			return sum;
+		}
+		long[] left = ModularMath.multiply(combine(2 * node, weighted), products[2 * node + 1], modulus);
+		long[] right = ModularMath.multiply(combine(2 * node + 1, weighted), products[2 * node], modulus);
+		long[] sum = new long[Math.max(left.length, right.length)];
+		for (int i = 0; i < sum.length; i++) {
+			long a = i < left.length ? left[i] : 0, b = i < right.length ? right[i] : 0;
+			sum[i] = (a + b) % modulus;
+		}
+		return sum;
+	}
+
+	private boolean isLeaf(int node) {
+		return 2 * node >= products.length || products[2 * node] == null;
+	}
+
+	private void checkModulus(ModularPolynomial poly) {
+		if (poly.modulus != modulus) {
+			throw new IllegalArgumentException("Moduli " + poly.modulus + " and " + modulus + " differ");
+		}
+	}
+
+	/**
+	 * Evaluates a polynomial at each of the given points, through a subproduct tree.
+	 *
+	 * @param poly Polynomial, whose modulus should be prime
+	 * @param points Points at which evaluation is to be done
+	 * @return Values of poly at the points, in [0,m)
+	 */
+	public static long[] evaluate(ModularPolynomial poly, long[] points) {
+		return new SubproductTree(points, poly.modulus).evaluate(poly);
+	}
+
+	/**
+	 * Returns the polynomial of degree less than n that takes the given values at the
+	 * given n points, through a subproduct tree.
+	 *
+	 * @param points Points, distinct modulo m
+	 * @param values Values, one for each point
+	 * @param modulus Prime modulus m
+	 * @return Interpolating polynomial
+	 * @throws IllegalArgumentException If the modulus is out of range, or the number of
+	 * values is not the number of points
+	 * @throws ArithmeticException If two points are equal modulo m
+	 */
+	public static ModularPolynomial interpolate(long[] points, long[] values, long modulus) {
+		return new SubproductTree(points, modulus).interpolate(values);
+	}
+
+	/**
+	 * Evaluates a polynomial with integer coefficients at each of the given integer points,
+	 * exactly, through subproduct trees modulo PRIME1 and PRIME2.
+	 *
+	 * @param poly Polynomial (front of linked list), with integer coefficients
+	 * @param xs Points at which evaluation is to be done, integers
+	 * @return Values of poly at the points, rounded to float
+	 * @throws IllegalArgumentException If a coefficient or a point is not an integer, or
+	 * poly has a term of negative degree
+	 * @throws ArithmeticException If a value could be 2^61 or more in magnitude
+	 */
+	public static float[] evaluate(Node poly, float[] xs) {
+		long[] points = integers(xs, "Point");
+		double maxX = 1;
+		for (float x : xs) {
+			maxX = Math.max(maxX, Math.abs((double) x));
+		}
+		double bound = 0;
+		for (Node current = poly; current != null; current = current.next) {
+			integer(current.term.coeff, "Coefficient");
+			bound += Math.abs((double) current.term.coeff) * Math.pow(maxX, current.term.degree);
+		}
+		if (bound >= MAX_EXACT) {
+			throw new ArithmeticException("Values may exceed 2^61 in magnitude");
+		}
+		long[] values1 = evaluate(ModularPolynomial.fromNode(poly, PRIME1), points);
+		long[] values2 = evaluate(ModularPolynomial.fromNode(poly, PRIME2), points);
+		float[] values = new float[xs.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = crt(values1[i], values2[i]);
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the polynomial of degree less than n that takes the given integer values at
+	 * the given n integer points, if its coefficients are integers below 2^61 in magnitude.
+	 * It is interpolated modulo PRIME1 and PRIME2, its coefficients are recovered by the
+	 * Chinese remainder theorem, and it is checked at all points modulo CHECK_PRIME.
+	 *
+	 * @param xs Points, distinct integers
+	 * @param ys Values, integers, one for each point
+	 * @return Interpolating polynomial (front of linked list); coefficients above 2^24 in
+	 * magnitude are rounded to float
+	 * @throws IllegalArgumentException If a point or value is not an integer, or the
+	 * number of values is not the number of points
+	 * @throws ArithmeticException If two points are equal, or the interpolating polynomial
+	 * does not have integer coefficients below 2^61 in magnitude
+	 */
+	public static Node interpolate(float[] xs, float[] ys) {
+		long[] points = integers(xs, "Point");
+		long[] values = integers(ys, "Value");
+		long[] coeffs1 = interpolate(points, values, PRIME1).coeffs;
+		long[] coeffs2 = interpolate(points, values, PRIME2).coeffs;
+		long[] coeffs = new long[Math.max(coeffs1.length, coeffs2.length)];
+		for (int i = 0; i < coeffs.length; i++) {
+			coeffs[i] = crt(i < coeffs1.length ? coeffs1[i] : 0, i < coeffs2.length ? coeffs2[i] : 0);
+		}
+		long[] check = evaluate(new ModularPolynomial(coeffs, CHECK_PRIME), points);
+		for (int i = 0; i < points.length; i++) {
+			long value = values[i] % CHECK_PRIME;
+			if (check[i] != (value < 0 ? value + CHECK_PRIME : value)) {
+				throw new ArithmeticException("Interpolating polynomial does not have integer coefficients below 2^61");
+			}
+		}
+		Node front = null;
+		for (int degree = coeffs.length - 1; degree >= 0; degree--) {
+			if (coeffs[degree] != 0) {
+				front = new Node(coeffs[degree], degree, front);
+			}
+		}
+		return front;
+	}
+
+	/**
+	 * Returns the integer of magnitude below PRIME1*PRIME2/2 with the given residues.
+	 */
+	static long crt(long r1, long r2) {
+		long t = (r2 - r1 % PRIME2 + PRIME2) % PRIME2 * PRIME1_INVERSE % PRIME2;
+		long x = r1 + PRIME1 * t;
+		return x > PRIME1 * PRIME2 / 2 ? x - PRIME1 * PRIME2 : x;
+	}
+
+	private static long[] integers(float[] xs, String what) {
+		long[] values = new long[xs.length];
+		for (int i = 0; i < xs.length; i++) {
+			values[i] = integer(xs[i], what);
+		}
+		return values;
+	}
+
+	private static long integer(float x, String what) {
+		if (x != Math.rint(x) || Math.abs(x) >= 0x1p63f) {
+			throw new IllegalArgumentException(what + " " + x + " is not an integer");
+		}
+		return (long) x;
+	}
+}
@@ -0,0 +1,60 @@
+package poly;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class implements a fork-join task that sums a range of polynomials by tree
+ * reduction: ranges of at most LEAF_SIZE polynomials are merged in one pass with
+ * Polynomial.sumTerms, and the partial sums of the two halves of larger ranges are merged
+ * with each other.
+ *
+ * @author runb-cs112
+ *
+ */
+class SumTask extends RecursiveTask<TermArrays> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Largest number of polynomials summed by a task without splitting.
+	 */
+	static final int LEAF_SIZE = 32;
+
+	/**
+	 * Polynomials to sum.
+	 */
+	private final List<Node> polys;
+
+	/**
+	 * Range of polynomials summed by this task, from inclusive, to exclusive.
+	 */
+	private final int from, to;
+
+	/**
+	 * Initializes this task.
+	 *
+	 * @param polys Polynomials to sum
+	 * @param from First polynomial, inclusive
+	 * @param to Last polynomial, exclusive
+	 */
+	SumTask(List<Node> polys, int from, int to) {
+		this.polys = polys;
+		this.from = from;
+		this.to = to;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.RecursiveTask#compute()
+	 */
+	protected TermArrays compute() {
+		if (to - from <= LEAF_SIZE) {
+			return Polynomial.sumTerms(polys.subList(from, to));
+		}
+		int middle = (from + to) >>> 1;
+		SumTask left = new SumTask(polys, from, middle);
+		left.fork();
+		TermArrays right = new SumTask(polys, middle, to).compute();
+		return TermArrays.add(left.join(), right);
+	}
+}
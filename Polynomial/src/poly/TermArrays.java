@@ -0,0 +1,121 @@
+package poly;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the terms of a polynomial in two parallel primitive arrays,
+ * one for degrees and one for coefficients, in the same order as the terms
+ * of the polynomial linked list.
+ *
+ * @author runb-cs112
+ *
+ */
+final class TermArrays {
+
+	/**
+	 * Degrees of terms.
+	 */
+	int[] degrees;
+
+	/**
+	 * Coefficients of terms, parallel to degrees.
+	 */
+	float[] coeffs;
+
+	/**
+	 * Number of terms in use.
+	 */
+	int size;
+
+	/**
+	 * Initializes an empty instance with room for the given number of terms.
+	 *
+	 * @param capacity Initial capacity
+	 */
+	TermArrays(int capacity) {
+		capacity = Math.max(capacity, 1);
+		degrees = new int[capacity];
+		coeffs = new float[capacity];
+		size = 0;
+	}
+
+	/**
+	 * Copies the terms of a polynomial linked list into a new instance.
+	 *
+	 * @param poly Polynomial (front of linked list)
+	 * @return Terms of poly, in list order
+	 */
+	static TermArrays of(Node poly) {
+		int count = 0;
+		for (Node current = poly; current != null; current = current.next) {
+			count++;
+		}
+		TermArrays terms = new TermArrays(count);
+		for (Node current = poly; current != null; current = current.next) {
+			terms.degrees[terms.size] = current.term.degree;
+			terms.coeffs[terms.size] = current.term.coeff;
+			terms.size++;
+		}
+		return terms;
+	}
+
+	/**
+	 * Appends a term at the end, growing the arrays if needed.
+	 *
+	 * @param coeff Coefficient of term
+	 * @param degree Degree of term
+	 */
+	void append(float coeff, int degree) {
+		if (size == degrees.length) {
+			int capacity = degrees.length + (degrees.length >> 1) + 1;
+			degrees = Arrays.copyOf(degrees, capacity);
+			coeffs = Arrays.copyOf(coeffs, capacity);
+		}
+		degrees[size] = degree;
+		coeffs[size] = coeff;
+		size++;
+	}
+
+	/**
+	 * Builds a new polynomial linked list with the terms of this instance, in array order.
+	 *
+	 * @return Front of the new linked list, or null if there are no terms
+	 */
+	Node toNode() {
+		Node front = null;
+		for (int i = size - 1; i >= 0; i--) {
+			front = new Node(coeffs[i], degrees[i], front);
+		}
+		return front;
+	}
+
+	/**
+	 * Adds two polynomials given as term arrays, each in ascending order of degrees,
+	 * dropping terms that cancel.
+	 *
+	 * @param a First operand, ascending degrees
+	 * @param b Second operand, ascending degrees
+	 * @return Sum, ascending degrees
+	 */
+	static TermArrays add(TermArrays a, TermArrays b) {
+		TermArrays sum = new TermArrays(a.size + b.size);
+		int i = 0, j = 0;
+		while (i < a.size || j < b.size) {
+			if (j == b.size || (i < a.size && a.degrees[i] < b.degrees[j])) {
+				sum.append(a.coeffs[i], a.degrees[i]);
+				i++;
+			} else if (i == a.size || b.degrees[j] < a.degrees[i]) {
+				sum.append(b.coeffs[j], b.degrees[j]);
+				j++;
+			} else {
+				float coeff = a.coeffs[i] + b.coeffs[j];
+				if (coeff != 0) {
+					sum.append(coeff, a.degrees[i]);
+				}
+				i++;
+				j++;
+			}
+		}
+		return sum;
+	}
+}
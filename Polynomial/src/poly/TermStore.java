@@ -0,0 +1,276 @@
+package poly;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class stores the terms of any number of polynomial linked lists in one flat block
+ * of parallel primitive arrays: degrees, coefficients, and the index of the next term in
+ * place of a next reference. A polynomial is identified by the index of its front term,
+ * with NONE for the zero polynomial. A term costs 12 bytes and no objects, against a Node
+ * and a Term (two object headers and a reference) for the linked list form.
+ * <p>
+ * Released lists go on a free list, and their slots are reused by later allocations, so
+ * a long computation that builds and drops intermediate results keeps a bounded store.
+ * Released slots are marked, so releasing a term twice throws instead of linking it into
+ * the free list twice. Polynomial.add and Polynomial.multiply have overloads that take
+ * and return lists in a store. A store is not safe for use by several threads at once.
+ *
+ * @author runb-cs112
+ *
+ */
+public class TermStore {
+
+	/**
+	 * Index that ends a list, and stands for the zero polynomial.
+	 */
+	public static final int NONE = -1;
+
+	/**
+	 * Degrees of terms.
+	 */
+	private int[] degrees;
+
+	/**
+	 * Coefficients of terms, parallel to degrees.
+	 */
+	private float[] coeffs;
+
+	/**
+	 * Index of the next term of each term, NONE at the end of a list.
+	 */
+	private int[] next;
+
+	/**
+	 * Number of slots ever used; slots from here on have never been allocated.
+	 */
+	private int top;
+
+	/**
+	 * Front of the list of released slots, linked through next.
+	 */
+	private int free;
+
+	/**
+	 * Slots that are on the free list.
+	 */
+	private final BitSet released = new BitSet();
+
+	/**
+	 * Initializes an empty store.
+	 */
+	public TermStore() {
+		this(16);
+	}
+
+	/**
+	 * Initializes an empty store with room for the given number of terms.
+	 *
+	 * @param capacity Initial capacity
+	 */
+	public TermStore(int capacity) {
+		capacity = Math.max(capacity, 1);
+		degrees = new int[capacity];
+		coeffs = new float[capacity];
+		next = new int[capacity];
+		top = 0;
+		free = NONE;
+	}
+
+	/**
+	 * Allocates a term, reusing a released slot if there is one.
+	 *
+	 * @param coeff Coefficient of term
+	 * @param degree Degree of term
+	 * @param next Index of the next term, or NONE
+	 * @return Index of the new term
+	 */
+	public int allocate(float coeff, int degree, int next) {
+		int index;
+		if (free != NONE) {
+			index = free;
+			free = this.next[free];
+			released.clear(index);
+		} else {
+			if (top == degrees.length) {
+				int capacity = 2 * degrees.length;
+				degrees = Arrays.copyOf(degrees, capacity);
+				coeffs = Arrays.copyOf(coeffs, capacity);
+				this.next = Arrays.copyOf(this.next, capacity);
+			}
+			index = top++;
+		}
+		degrees[index] = degree;
+		coeffs[index] = coeff;
+		this.next[index] = next;
+		return index;
+	}
+
+	/**
+	 * Releases all terms of a list for reuse. The list must not be used afterwards, nor
+	 * released again, and must not share terms with another list that is still in use.
+	 *
+	 * @param front Index of the front term, or NONE
+	 * @throws IllegalStateException If a term of the list has already been released; the
+	 * store is then unchanged
+	 */
+	public void release(int front) {
+		if (front == NONE) {
+			return;
+		}
+		for (int current = front; current != NONE; current = next[current]) {
+			if (released.get(current)) {
+				throw new IllegalStateException("Term " + current + " is already released");
+			}
+		}
+		int last = front;
+		released.set(last);
+		while (next[last] != NONE) {
+			last = next[last];
+			released.set(last);
+		}
+		next[last] = free;
+		free = front;
+	}
+
+	/**
+	 * Returns the coefficient of a term.
+	 *
+	 * @param index Index of term
+	 * @return Coefficient
+	 */
+	public float coeff(int index) {
+		return coeffs[index];
+	}
+
+	/**
+	 * Returns the degree of a term.
+	 *
+	 * @param index Index of term
+	 * @return Degree
+	 */
+	public int degree(int index) {
+		return degrees[index];
+	}
+
+	/**
+	 * Returns the index of the term after a term.
+	 *
+	 * @param index Index of term
+	 * @return Index of the next term, or NONE
+	 */
+	public int next(int index) {
+		return next[index];
+	}
+
+	/**
+	 * Sets the term after a term, the end of a list being built.
+	 */
+	void link(int index, int following) {
+		next[index] = following;
+	}
+
+	/**
+	 * Returns the number of terms of a list.
+	 *
+	 * @param front Index of the front term, or NONE
+	 * @return Number of terms
+	 */
+	public int size(int front) {
+		int count = 0;
+		for (int current = front; current != NONE; current = next[current]) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Copies a polynomial linked list into this store, in the same order.
+	 *
+	 * @param poly Polynomial (front of linked list)
+	 * @return Index of the front term of the copy, NONE if poly is null
+	 */
+	public int fromNode(Node poly) {
+		int front = NONE, last = NONE;
+		for (Node current = poly; current != null; current = current.next) {
+			int index = allocate(current.term.coeff, current.term.degree, NONE);
+			if (last == NONE) {
+				front = index;
+			} else {
+				next[last] = index;
+			}
+			last = index;
+		}
+		return front;
+	}
+
+	/**
+	 * Builds a new polynomial linked list with the terms of a list in this store, in the
+	 * same order.
+	 *
+	 * @param front Index of the front term, or NONE
+	 * @return Front of the new linked list, null if front is NONE
+	 */
+	public Node toNode(int front) {
+		return toTerms(front).toNode();
+	}
+
+	/**
+	 * Returns the terms of a list, for use in a for-each loop. The iterator returns the
+	 * same Term instance every time, set to the current term; it is a view, so changing
+	 * its fields does not change the store, and it must be copied to be kept.
+	 *
+	 * @param front Index of the front term, or NONE
+	 * @return Terms of the list, in list order
+	 */
+	public Iterable<Term> terms(final int front) {
+		return new Iterable<Term>() {
+			public Iterator<Term> iterator() {
+				return new Iterator<Term>() {
+					private final Term view = new Term(0, 0);
+					private int current = front;
+
+					public boolean hasNext() {
+						return current != NONE;
+					}
+
+					public Term next() {
+						if (current == NONE) {
+							throw new NoSuchElementException();
+						}
+						view.coeff = coeffs[current];
+						view.degree = degrees[current];
+						current = next[current];
+						return view;
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * Copies the terms of a list into term arrays, in list order.
+	 */
+	TermArrays toTerms(int front) {
+		TermArrays terms = new TermArrays(size(front));
+		for (int current = front; current != NONE; current = next[current]) {
+			terms.append(coeffs[current], degrees[current]);
+		}
+		return terms;
+	}
+
+	/**
+	 * Stores term arrays as a new list, in array order.
+	 *
+	 * @return Index of the front term, NONE if there are no terms
+	 */
+	int append(TermArrays terms) {
+		int following = NONE;
+		for (int i = terms.size - 1; i >= 0; i--) {
+			following = allocate(terms.coeffs[i], terms.degrees[i], following);
+		}
+		return following;
+	}
+}
@@ -0,0 +1,335 @@
+package poly;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class checks the division and gcd paths against each other on random integer
+ * polynomials: Newton and schoolbook division in double (PolyMath) and modulo a prime
+ * (ModularMath), the modular and floating-point gcd (PolynomialGcd), and the linked list
+ * entry points Polynomial.divide, remainder and gcd. Dividends are built as b*q + r from
+ * known integer q and r, and gcd inputs as g*u and g*v from a known integer g, so every
+ * path can be held to the same exact answer. Zero, constant and degree-deficient divisors
+ * (of degree above the dividend, or with trailing zero coefficients) are covered, and
+ * divisors long enough for Newton division have monic and other small leading
+ * coefficients, for which its power series inverse is badly conditioned.
+ * <p>
+ * Run as a program, with an optional random seed; it prints each failure and exits with
+ * status 1 if there was any.
+ *
+ * @author runb-cs112
+ *
+ */
+public class PolynomialDivisionTest {
+
+	/**
+	 * Prime modulo which the modular paths are checked.
+	 */
+	static final long PRIME = ModularPolynomial.MAX_MODULUS;
+
+	/**
+	 * Largest error of a floating-point result, relative to the size of the exact result.
+	 */
+	static final double TOLERANCE = 1e-6;
+
+	/**
+	 * Number of random cases of each kind.
+	 */
+	static final int TRIALS = 200;
+
+	static int checks, failures;
+
+	public static void main(String[] args) {
+		Random random = new Random(args.length > 0 ? Long.parseLong(args[0]) : 112);
+		zeroDivisors();
+		for (int trial = 0; trial < TRIALS; trial++) {
+			// schoolbook sizes, with any leading coefficient
+			long[] b = random(random, random.nextInt(12), 9);
+			divisions("small", random, b, random.nextInt(20));
+		}
+		long[] leads = { 1, -1, 2, -2, 3, 7 };
+		for (int trial = 0; trial < TRIALS / 4; trial++) {
+			// sizes for Newton iteration, with monic and other small leading coefficients,
+			// for which the power series inverse of the reversed divisor grows fast
+			int degree = PolyMath.DIVISION_THRESHOLD + random.nextInt(100);
+			long[] b = Arrays.copyOf(random(random, degree - 1, 9), degree + 1);
+			b[degree] = leads[trial % leads.length];
+			divisions("newton lead " + b[degree], random, b, PolyMath.DIVISION_THRESHOLD + random.nextInt(100));
+		}
+		for (int trial = 0; trial < TRIALS / 10; trial++) {
+			long[] b = { (random.nextBoolean() ? 1 : -1) * (1 + random.nextInt(5)) };
+			divisions("constant", random, b, random.nextInt(150));
+		}
+		for (int trial = 0; trial < TRIALS / 10; trial++) {
+			long[] b = random(random, 5 + random.nextInt(10), 9);
+			long[] a = random(random, random.nextInt(5), 9);
+			division("deficient", a, b, new long[0], a);
+			division("padded", a, Arrays.copyOf(b, b.length + 1 + random.nextInt(5)), new long[0], a);
+		}
+		for (int trial = 0; trial < TRIALS; trial++) {
+			long[] g = random(random, random.nextInt(5), 5);
+			long[] u = random(random, random.nextInt(6), 5);
+			long[] v = random(random, random.nextInt(6), 5);
+			gcds(multiply(g, u), multiply(g, v), g);
+		}
+		for (int trial = 0; trial < TRIALS / 10; trial++) {
+			long[] b = random(random, random.nextInt(8), 9);
+			gcds(new long[0], b, b);
+			gcds(b, new long[0], b);
+			gcds(new long[] { 6 }, multiply(new long[] { 4 }, b), new long[] { 2 });
+		}
+		gcds(new long[0], new long[0], new long[0]);
+		System.out.println(checks + " checks, " + failures + " failures");
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Divides q*b + r by b on every path, for a random q of the given degree and a random
+	 * r of degree below that of b, and as a divisor padded with trailing zeros.
+	 */
+	private static void divisions(String label, Random random, long[] b, int quotientDegree) {
+		long[] q = random(random, quotientDegree, 9);
+		long[] r = random(random, Math.min(degree(b) - 1, 1 + random.nextInt(40)), 9);
+		long[] a = add(multiply(b, q), r);
+		division(label, a, b, q, r);
+		division(label + " padded", a, Arrays.copyOf(b, b.length + 1 + quotientDegree % 3), q, r);
+	}
+
+	/**
+	 * Checks that every division path divides a by b into q and r.
+	 */
+	private static void division(String label, long[] a, long[] b, long[] q, long[] r) {
+		double[] da = toDouble(a), db = toDouble(b);
+		double[][] newton = PolyMath.divide(da, db);
+		close(label + " quotient", newton[0], q);
+		close(label + " remainder", newton[1], r);
+		int n = PolyMath.degree(da), m = PolyMath.degree(db);
+		if (n >= m) {
+			double[][] schoolbook = PolyMath.schoolbookDivide(da, n, db, m);
+			close(label + " schoolbook quotient", schoolbook[0], q);
+			close(label + " schoolbook remainder", schoolbook[1], r);
+			close(label + " quotient against schoolbook", newton[0], schoolbook[0], 1);
+			close(label + " remainder against schoolbook", newton[1], schoolbook[1], 1);
+		}
+		close(label + " remainder only", PolyMath.remainder(da, db), r);
+
+		long[] ma = reduce(a), mb = reduce(b);
+		long[][] modular = ModularMath.divide(ma, mb, PRIME);
+		equal(label + " modular quotient", modular[0], reduce(q));
+		equal(label + " modular remainder", modular[1], reduce(r));
+		if (n >= m) {
+			long[][] schoolbook = ModularMath.schoolbookDivide(ma, n, mb, m, PRIME);
+			equal(label + " modular schoolbook quotient", ModularMath.trim(schoolbook[0]), reduce(q));
+			equal(label + " modular schoolbook remainder", schoolbook[1], reduce(r));
+		}
+
+		if (fitsFloat(a) && fitsFloat(b)) {
+			Node nodeA = PolyMath.toNode(da), nodeB = PolyMath.toNode(db);
+			close(label + " list quotient", of(Polynomial.divide(nodeA, nodeB)), q);
+			close(label + " list remainder", of(Polynomial.remainder(nodeA, nodeB)), r);
+		}
+	}
+
+	/**
+	 * Checks that division by the zero polynomial throws on every path.
+	 */
+	private static void zeroDivisors() {
+		double[] a = { 1, 2, 3 };
+		double[][] zeros = { new double[0], new double[4] };
+		for (double[] zero : zeros) {
+			throwsArithmetic("zero divisor", () -> PolyMath.divide(a, zero));
+			throwsArithmetic("zero divisor modular", () -> ModularMath.divide(reduce(new long[] { 1, 2, 3 }),
+					new long[zero.length], PRIME));
+		}
+		throwsArithmetic("zero divisor list", () -> Polynomial.divide(PolyMath.toNode(a), null));
+		throwsArithmetic("zero divisor list remainder", () -> Polynomial.remainder(PolyMath.toNode(a), null));
+		throwsArithmetic("zero divisor of zero", () -> PolyMath.divide(new double[0], new double[0]));
+	}
+
+	/**
+	 * Checks that every gcd path finds the gcd of a and b, which g divides; g is the gcd
+	 * itself whenever a or b is zero.
+	 */
+	private static void gcds(long[] a, long[] b, long[] g) {
+		double[] da = PolyMath.trim(toDouble(a)), db = PolyMath.trim(toDouble(b));
+		double[] gcd = PolynomialGcd.gcd(da, db);
+		long[] h = new long[gcd.length];
+		for (int i = 0; i < gcd.length; i++) {
+			h[i] = (long) gcd[i];
+			check("gcd integer", gcd[i] == h[i], gcd);
+		}
+		if (a.length == 0 && b.length == 0) {
+			check("gcd of zeros", h.length == 0, gcd);
+			check("float gcd of zeros", PolynomialGcd.floatGcd(da, db).length == 0, gcd);
+			check("list gcd of zeros", Polynomial.gcd(null, null) == null, gcd);
+			return;
+		}
+		check("gcd positive", h.length > 0 && h[h.length - 1] > 0, gcd);
+		check("gcd divides", divides(h, a) && divides(h, b), gcd);
+		check("divides gcd", divides(trim(g), h), gcd);
+		if (a.length == 0 || b.length == 0) {
+			long[] nonzero = trim(a.length == 0 ? b : a);
+			if (nonzero[nonzero.length - 1] < 0) {
+				nonzero = multiply(new long[] { -1 }, nonzero);
+			}
+			equal("gcd with zero", h, nonzero);
+		}
+
+		long[] ma = reduce(a), mb = reduce(b);
+		equal("modular gcd", PolynomialGcd.modularGcd(ma, mb, PRIME), monic(reduce(h)));
+		double[] floatGcd = PolynomialGcd.floatGcd(da, db);
+		if (PolyMath.degree(floatGcd) == degree(h)) {
+			close("float gcd", floatGcd, toDouble(h), h[h.length - 1]);
+		} else {
+			// a remainder fell below PolynomialGcd.TOLERANCE before Euclid's algorithm got
+			// down to the gcd, so the float gcd is a near common divisor of higher degree;
+			// it must still be a multiple of the exact gcd
+			check("float gcd degree", PolyMath.degree(floatGcd) > degree(h), floatGcd);
+			close("float gcd multiple", PolyMath.remainder(floatGcd, toDouble(h)), new long[0]);
+		}
+		if (fitsFloat(a) && fitsFloat(b)) {
+			close("list gcd", of(Polynomial.gcd(PolyMath.toNode(da), PolyMath.toNode(db))), h);
+		}
+	}
+
+	private static void check(String label, boolean ok, Object detail) {
+		checks++;
+		if (!ok) {
+			failures++;
+			System.out.println("FAILED " + label + ": " + (detail instanceof double[]
+					? Arrays.toString((double[]) detail) : Arrays.toString((long[]) detail)));
+		}
+	}
+
+	private static void equal(String label, long[] actual, long[] expected) {
+		check(label, Arrays.equals(ModularMath.trim(actual), ModularMath.trim(expected)), actual);
+	}
+
+	private static void close(String label, double[] actual, long[] expected) {
+		close(label, actual, toDouble(expected), 1);
+	}
+
+	/**
+	 * Checks that actual is expected / divisor, up to TOLERANCE relative to the largest
+	 * coefficient of the result.
+	 */
+	private static void close(String label, double[] actual, double[] expected, double divisor) {
+		double scale = 1;
+		for (double coeff : expected) {
+			scale = Math.max(scale, Math.abs(coeff / divisor));
+		}
+		boolean ok = true;
+		for (int i = 0; i < Math.max(actual.length, expected.length); i++) {
+			double x = i < actual.length ? actual[i] : 0, y = i < expected.length ? expected[i] / divisor : 0;
+			ok &= Math.abs(x - y) <= TOLERANCE * scale;
+		}
+		check(label, ok, actual);
+	}
+
+	private interface Division {
+		void run();
+	}
+
+	private static void throwsArithmetic(String label, Division division) {
+		boolean thrown = false;
+		try {
+			division.run();
+		} catch (ArithmeticException e) {
+			thrown = true;
+		}
+		check(label, thrown, new long[0]);
+	}
+
+	/**
+	 * Returns a random polynomial of the given degree (empty below 0), with coefficients in
+	 * [-bound,bound] and a non-zero leading coefficient.
+	 */
+	private static long[] random(Random random, int degree, int bound) {
+		long[] a = new long[Math.max(degree + 1, 0)];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = random.nextInt(2 * bound + 1) - bound;
+		}
+		if (a.length > 0 && a[degree] == 0) {
+			a[degree] = random.nextBoolean() ? bound : -bound;
+		}
+		return a;
+	}
+
+	private static int degree(long[] a) {
+		return ModularMath.degree(a);
+	}
+
+	private static long[] trim(long[] a) {
+		return ModularMath.trim(a);
+	}
+
+	private static long[] add(long[] a, long[] b) {
+		long[] sum = Arrays.copyOf(a, Math.max(a.length, b.length));
+		for (int i = 0; i < b.length; i++) {
+			sum[i] += b[i];
+		}
+		return sum;
+	}
+
+	private static long[] multiply(long[] a, long[] b) {
+		if (a.length == 0 || b.length == 0) {
+			return new long[0];
+		}
+		long[] product = new long[a.length + b.length - 1];
+		for (int i = 0; i < a.length; i++) {
+			for (int j = 0; j < b.length; j++) {
+				product[i + j] += a[i] * b[j];
+			}
+		}
+		return product;
+	}
+
+	/**
+	 * Returns true if h divides a exactly, modulo PRIME; h is small enough here that this
+	 * is exact division over the integers.
+	 */
+	private static boolean divides(long[] h, long[] a) {
+		return ModularMath.remainder(reduce(a), reduce(h), PRIME).length == 0;
+	}
+
+	private static long[] reduce(long[] a) {
+		long[] reduced = new long[a.length];
+		for (int i = 0; i < a.length; i++) {
+			long value = a[i] % PRIME;
+			reduced[i] = value < 0 ? value + PRIME : value;
+		}
+		return reduced;
+	}
+
+	private static long[] monic(long[] a) {
+		a = trim(a);
+		long inverse = NumberTheoreticTransform.inverse(a[a.length - 1], PRIME);
+		for (int i = 0; i < a.length; i++) {
+			a[i] = a[i] * inverse % PRIME;
+		}
+		return a;
+	}
+
+	private static double[] toDouble(long[] a) {
+		double[] values = new double[a.length];
+		for (int i = 0; i < a.length; i++) {
+			values[i] = a[i];
+		}
+		return values;
+	}
+
+	private static boolean fitsFloat(long[] a) {
+		for (long coeff : a) {
+			if (Math.abs(coeff) > 1 << 24) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static double[] of(Node poly) {
+		return PolyMath.of(TermArrays.of(poly));
+	}
+}